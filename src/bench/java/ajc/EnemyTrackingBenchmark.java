@@ -0,0 +1,136 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ajc;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the per-tick cost of tracking enemy energies and detecting that we were fired upon.
+ * 
+ * Each enemy is given a synthetic history of scans before measuring, so that any cost that grows
+ * with the length of the history or with the number of enemies shows up as a regression.
+ * 
+ * @author Anthony Christe
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class EnemyTrackingBenchmark {
+  /**
+   * The number of enemies scanned every tick.
+   */
+  @Param({ "1", "10", "50" })
+  public int enemies;
+
+  /**
+   * The number of scans recorded for every enemy before measuring, at most the capacity of an
+   * EnergyHistory.
+   */
+  @Param({ "2", "8", "16" })
+  public int historySize;
+
+  /**
+   * Ledger holding the synthetic enemy histories.
+   */
+  private EnergyLedger ledger;
+
+  /**
+   * Condition that shots detected by the ledger are queued on.
+   */
+  private FiredUponEvent firedUponEvent;
+
+  /**
+   * Names of the synthetic enemies.
+   */
+  private String[] names;
+
+  /**
+   * Energy reported by the next scan of every enemy.
+   */
+  private double energy;
+
+  /**
+   * The number of times every enemy has been scanned.
+   */
+  private long scans;
+
+  /**
+   * Builds the synthetic enemy histories.
+   */
+  @Setup
+  public void setup() {
+    this.ledger = new EnergyLedger();
+    this.firedUponEvent = new FiredUponEvent();
+    this.names = new String[this.enemies];
+    this.energy = 100.0;
+    this.scans = 0;
+    for (int i = 0; i < this.enemies; i++) {
+      this.names[i] = "sample.Enemy" + i;
+    }
+    for (int scan = 0; scan < this.historySize; scan++) {
+      this.scanAll();
+    }
+  }
+
+  /**
+   * Scans every enemy once, as the radar would over a tick, and queues any detected shots.
+   * 
+   * @return The number of shots detected, so the work cannot be optimized away.
+   */
+  @Benchmark
+  public int scanAll() {
+    int shots = 0;
+    // Alternate between firing and holding fire, staying well clear of zero energy
+    if (this.scans++ % 2 == 1) {
+      this.energy = this.energy < 10 ? 100.0 : this.energy - 0.5;
+    }
+    for (int i = 0; i < this.names.length; i++) {
+      double power = this.ledger.recordScan(this.names[i], this.energy, 8.0, 400, 300, 800, 600);
+      if (power > 0) {
+        this.firedUponEvent.enqueue(this.names[i], power);
+        shots++;
+      }
+    }
+    return shots;
+  }
+
+  /**
+   * Polls the FiredUponEvent the way the engine does every tick after every enemy was scanned.
+   * 
+   * @return The result of the condition's test.
+   */
+  @Benchmark
+  public boolean scanAllAndTestFiredUpon() {
+    this.scanAll();
+    return this.firedUponEvent.test();
+  }
+}
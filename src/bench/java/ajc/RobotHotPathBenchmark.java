@@ -0,0 +1,151 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ajc;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import robocode.ScannedRobotEvent;
+
+/**
+ * Benchmarks the robot's handlers and helpers that run every tick.
+ * 
+ * The robot is attached to a StubRobotPeer, so these numbers include none of the Robocode engine.
+ * They do include the stub itself: every peer call the robot makes goes through a reflective proxy,
+ * a map lookup and boxing of the result. The <i>peerCall</i> benchmark measures one such call, and
+ * results should be read with that cost per peer call in mind. A handler that makes many peer
+ * calls, such as <i>onScannedRobot</i>, is slower here than it would be with the real peer.
+ * 
+ * The stub peer has no data directory, so opponent profiles are kept in memory only.
+ * 
+ * @author Anthony Christe
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dajc.transientProfiles=true")
+@State(Scope.Thread)
+public class RobotHotPathBenchmark {
+  /**
+   * The robot under test.
+   */
+  private WrathOfPele robot;
+
+  /**
+   * Fire power selector for a default sized battlefield.
+   */
+  private FirePowerSelector firePowerSelector;
+
+  /**
+   * Sensor stage bound to the robot under test, evaluating the robot's sensors.
+   */
+  private SensorStage sensorStage;
+
+  /**
+   * Scans alternated between on each call so the enemy appears to be moving and firing.
+   */
+  private ScannedRobotEvent[] scans;
+
+  /**
+   * Index of the next scan to deliver.
+   */
+  private int nextScan = 0;
+
+  /**
+   * Creates the robot and runs its per-round initialization without starting its main loop.
+   * 
+   * @throws Exception If the robot's initialization cannot be invoked.
+   */
+  @Setup
+  public void setup() throws Exception {
+    this.robot = StubRobotPeer.attach(new WrathOfPele());
+    Method init = WrathOfPele.class.getDeclaredMethod("init");
+    init.setAccessible(true);
+    init.invoke(this.robot);
+
+    this.firePowerSelector = new FirePowerSelector(800.0, 600.0);
+    this.sensorStage = new SensorStage(this.robot, null, new WallProximityEvent(this.robot,
+        WallProximityEvent.EventTrigger.WALL_PROXIMITY,
+        WallProximityEvent.DEFAULT_MIN_SAFE_DISTANCE), new FiredUponEvent());
+    this.scans = new ScannedRobotEvent[] {
+      new ScannedRobotEvent("sample.Crazy", 100.0, 30.0, 250.0, 90.0, 8.0),
+      new ScannedRobotEvent("sample.Crazy", 98.0, 32.0, 245.0, 95.0, 8.0),
+      new ScannedRobotEvent("sample.Crazy", 98.0, 34.0, 240.0, 100.0, -8.0),
+      new ScannedRobotEvent("sample.Crazy", 100.0, 36.0, 235.0, 105.0, -8.0),
+    };
+  }
+
+  /**
+   * Benchmarks one getter call through the stub peer, the overhead included in every peer call.
+   * 
+   * @return The robot's x-coordinate.
+   */
+  @Benchmark
+  public double peerCall() {
+    return this.robot.getX();
+  }
+
+  /**
+   * Benchmarks the sensor stage capturing the robot's state and evaluating every sensor.
+   * 
+   * @return The result of the stage's test.
+   */
+  @Benchmark
+  public boolean sensorStageTest() {
+    return this.sensorStage.test();
+  }
+
+  /**
+   * Benchmarks choosing a fire power for an enemy at a fixed distance.
+   * 
+   * @return The chosen fire power.
+   */
+  @Benchmark
+  public double firePower() {
+    return this.firePowerSelector.getPower("sample.Crazy", 250.0, 100.0);
+  }
+
+  /**
+   * Benchmarks computing the angle to turn the gun to face an enemy.
+   * 
+   * @return The gun turn angle.
+   */
+  @Benchmark
+  public double targetTurnAngle() {
+    return RobotUtilities.getTargetTurnAngle(90.0, 45.0, 30.0);
+  }
+
+  /**
+   * Benchmarks the complete handling of one scan of an enemy.
+   */
+  @Benchmark
+  public void onScannedRobot() {
+    this.robot.onScannedRobot(this.scans[this.nextScan]);
+    this.nextScan = (this.nextScan + 1) % this.scans.length;
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import robocode.AdvancedRobot;
+import robocode.robotinterfaces.peer.IAdvancedRobotPeer;
+
+/**
+ * A robot peer that lets robots run outside of a battle so their handlers can be benchmarked.
+ * 
+ * Getters return fixed values describing a robot in the middle of an 800x600 battlefield, and
+ * every command (turning, moving, firing, executing) is silently ignored.
+ * 
+ * The peer is a dynamic proxy so it keeps up with every method of the peer interface. The price is
+ * a reflective call, a map lookup and boxing on every call, which RobotHotPathBenchmark.peerCall
+ * measures so it can be told apart from the robot's own time.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public final class StubRobotPeer implements InvocationHandler {
+  /**
+   * Values returned by the peer's getters, keyed by method name.
+   */
+  private final Map<String, Object> values = new HashMap<>();
+
+  /**
+   * Creates a peer describing an idle robot at (400, 300) on an 800x600 battlefield.
+   */
+  private StubRobotPeer() {
+    values.put("getX", 400.0);
+    values.put("getY", 300.0);
+    values.put("getBattleFieldWidth", 800.0);
+    values.put("getBattleFieldHeight", 600.0);
+    values.put("getWidth", 36.0);
+    values.put("getHeight", 36.0);
+    values.put("getEnergy", 100.0);
+    values.put("getGunCoolingRate", 0.1);
+    values.put("getOthers", 1);
+    values.put("getNumRounds", 1);
+  }
+
+  /**
+   * Attaches a stub peer to a robot.
+   * 
+   * @param robot The robot to attach the peer to.
+   * @param <T> The type of the robot.
+   * @return The robot, ready to have its handlers called directly.
+   */
+  public static <T extends AdvancedRobot> T attach(T robot) {
+    IAdvancedRobotPeer peer = (IAdvancedRobotPeer) Proxy.newProxyInstance(
+        StubRobotPeer.class.getClassLoader(), new Class<?>[] { IAdvancedRobotPeer.class },
+        new StubRobotPeer());
+    robot.setPeer(peer);
+    robot.setOut(new PrintStream(new ByteArrayOutputStream()));
+    return robot;
+  }
+
+  /**
+   * Returns the configured value for getters and a default value for everything else.
+   * 
+   * @param proxy The peer proxy.
+   * @param method The peer method that was called.
+   * @param args The arguments of the call.
+   * @return The value the peer method returns.
+   */
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) {
+    Object value = values.get(method.getName());
+    if (value != null) {
+      return value;
+    }
+
+    Class<?> type = method.getReturnType();
+    if (type == double.class) {
+      return 0.0;
+    }
+    if (type == int.class) {
+      return 0;
+    }
+    if (type == long.class) {
+      return 0L;
+    }
+    if (type == boolean.class) {
+      return false;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,346 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Moves away from the sum of repulsive forces around this robot, for melee on large battlefields.
+ *
+ * Every scan deposits the enemy's position as a force source into a coarse uniform grid. Each cell
+ * keeps only the total strength of its sources and their strength-weighted position, so summing
+ * the forces around this robot reads a fixed block of cells no matter how many enemies or
+ * remembered positions there are. Older deposits fade by <i>DECAY</i> every tick. The fading is
+ * applied lazily by scaling new deposits up instead of scaling every cell down, so aging costs
+ * nothing per tick either.
+ *
+ * A scan only deposits the strength that faded since the same enemy's previous scan, so an enemy
+ * adds up to the same total force whether the radar sees it every tick or every ten ticks.
+ *
+ * The walls and corners push the robot back toward the middle of the battlefield.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class AntiGravityMovement {
+  /**
+   * The width and height of a grid cell in pixels.
+   */
+  public static final double CELL_SIZE = 200.0;
+
+  /**
+   * The strength deposited for every unit of a scanned enemy's energy.
+   */
+  public static final double ENERGY_STRENGTH = 100.0;
+
+  /**
+   * How many cells in every direction around this robot are summed.
+   */
+  private static final int NEIGHBOURHOOD = 2;
+
+  /**
+   * The fraction of a deposit's strength left after one tick.
+   */
+  private static final double DECAY = 0.95;
+
+  /**
+   * Deposits are rescaled once the lazy decay scale grows past this value.
+   */
+  private static final double MAX_SCALE = 1e100;
+
+  /**
+   * The strength with which each wall pushes the robot away.
+   */
+  private static final double WALL_STRENGTH = 5000.0;
+
+  /**
+   * The strength with which each corner pushes the robot away.
+   */
+  private static final double CORNER_STRENGTH = 20000.0;
+
+  /**
+   * How far ahead of the robot the destination is placed in the direction of the force.
+   */
+  private static final double STEP_DISTANCE = 100.0;
+
+  /**
+   * The width of the battlefield.
+   */
+  private final double fieldWidth;
+
+  /**
+   * The height of the battlefield.
+   */
+  private final double fieldHeight;
+
+  /**
+   * The number of grid columns.
+   */
+  private final int columns;
+
+  /**
+   * The number of grid rows.
+   */
+  private final int rows;
+
+  /**
+   * Total strength of the sources in each cell, stored in row-major order.
+   */
+  private final double[] strengths;
+
+  /**
+   * Sum of the x-coordinates of each cell's sources weighted by strength.
+   */
+  private final double[] weightedX;
+
+  /**
+   * Sum of the y-coordinates of each cell's sources weighted by strength.
+   */
+  private final double[] weightedY;
+
+  /**
+   * The factor every stored value is divided by to apply the decay of the ticks so far.
+   */
+  private double scale = 1.0;
+
+  /**
+   * The last tick the decay was applied for.
+   */
+  private long lastTime = 0;
+
+  /**
+   * The last tick each enemy was deposited at, keyed by name.
+   */
+  private final Map<String, Long> lastScanTimes = new HashMap<>();
+
+  /**
+   * The x-coordinate of the chosen destination.
+   */
+  private double destinationX;
+
+  /**
+   * The y-coordinate of the chosen destination.
+   */
+  private double destinationY;
+
+  /**
+   * Creates an empty grid covering a battlefield.
+   *
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   */
+  public AntiGravityMovement(double fieldWidth, double fieldHeight) {
+    this.fieldWidth = fieldWidth;
+    this.fieldHeight = fieldHeight;
+    this.columns = Math.max(1, (int) Math.ceil(fieldWidth / CELL_SIZE));
+    this.rows = Math.max(1, (int) Math.ceil(fieldHeight / CELL_SIZE));
+    this.strengths = new double[this.columns * this.rows];
+    this.weightedX = new double[this.columns * this.rows];
+    this.weightedY = new double[this.columns * this.rows];
+  }
+
+  /**
+   * Deposits a repulsive force source, such as an enemy that was just scanned.
+   *
+   * The first deposit of a source carries its full strength. Later deposits only carry the share
+   * that decayed since the source's previous deposit, <i>strength</i> * (1 - <i>DECAY</i>^dt),
+   * which keeps the total of a steadily scanned source at its strength.
+   *
+   * @param name The name of the source.
+   * @param x The x-coordinate of the source.
+   * @param y The y-coordinate of the source.
+   * @param strength The strength of the source at the current time.
+   * @param time The current time.
+   */
+  public void addSource(String name, double x, double y, double strength, long time) {
+    this.age(time);
+    Long lastScanTime = this.lastScanTimes.put(name, time);
+    double share = 1.0;
+    if (lastScanTime != null) {
+      share = 1.0 - Math.pow(DECAY, Math.max(0, time - lastScanTime));
+    }
+
+    int cell = this.getCell(x, y);
+    double scaled = strength * share * this.scale;
+    this.strengths[cell] += scaled;
+    this.weightedX[cell] += scaled * x;
+    this.weightedY[cell] += scaled * y;
+  }
+
+  /**
+   * Sums the forces around this robot and places the destination in their direction.
+   *
+   * @param x The x-coordinate of this robot.
+   * @param y The y-coordinate of this robot.
+   * @param time The current time.
+   */
+  public void choose(double x, double y, long time) {
+    this.age(time);
+    double forceX = 0.0;
+    double forceY = 0.0;
+
+    int column = this.getColumn(x);
+    int row = this.getRow(y);
+    for (int r = Math.max(0, row - NEIGHBOURHOOD);
+        r <= Math.min(this.rows - 1, row + NEIGHBOURHOOD); r++) {
+      for (int c = Math.max(0, column - NEIGHBOURHOOD);
+          c <= Math.min(this.columns - 1, column + NEIGHBOURHOOD); c++) {
+        int cell = r * this.columns + c;
+        double strength = this.strengths[cell];
+        if (strength <= 0) {
+          continue;
+        }
+        double dx = x - this.weightedX[cell] / strength;
+        double dy = y - this.weightedY[cell] / strength;
+        double distanceSq = dx * dx + dy * dy + 1.0;
+        double magnitude = strength / this.scale / (distanceSq * Math.sqrt(distanceSq));
+        forceX += dx * magnitude;
+        forceY += dy * magnitude;
+      }
+    }
+
+    // Walls push straight back into the battlefield
+    forceX += WALL_STRENGTH / square(Math.max(1.0, x));
+    forceX -= WALL_STRENGTH / square(Math.max(1.0, this.fieldWidth - x));
+    forceY += WALL_STRENGTH / square(Math.max(1.0, y));
+    forceY -= WALL_STRENGTH / square(Math.max(1.0, this.fieldHeight - y));
+
+    // Corners push away along the diagonal
+    for (int corner = 0; corner < 4; corner++) {
+      double dx = x - ((corner & 1) == 0 ? 0.0 : this.fieldWidth);
+      double dy = y - ((corner & 2) == 0 ? 0.0 : this.fieldHeight);
+      double distanceSq = dx * dx + dy * dy + 1.0;
+      double magnitude = CORNER_STRENGTH / (distanceSq * Math.sqrt(distanceSq));
+      forceX += dx * magnitude;
+      forceY += dy * magnitude;
+    }
+
+    double angle = RobotUtilities.atan2(forceX, forceY);
+    this.destinationX = x + RobotUtilities.sin(angle) * STEP_DISTANCE;
+    this.destinationY = y + RobotUtilities.cos(angle) * STEP_DISTANCE;
+  }
+
+  /**
+   * Forgets every source at the start of a new round.
+   */
+  public void resetRound() {
+    Arrays.fill(this.strengths, 0.0);
+    Arrays.fill(this.weightedX, 0.0);
+    Arrays.fill(this.weightedY, 0.0);
+    this.lastScanTimes.clear();
+    this.scale = 1.0;
+    this.lastTime = 0;
+  }
+
+  /**
+   * Returns the total strength of the sources left in the cell containing a point.
+   *
+   * @param x The x-coordinate of the point.
+   * @param y The y-coordinate of the point.
+   * @return The strength of the cell after decay.
+   */
+  public double getCellStrength(double x, double y) {
+    return this.strengths[this.getCell(x, y)] / this.scale;
+  }
+
+  /**
+   * Returns the x-coordinate of the chosen destination.
+   *
+   * @return The x-coordinate.
+   */
+  public double getDestinationX() {
+    return this.destinationX;
+  }
+
+  /**
+   * Returns the y-coordinate of the chosen destination.
+   *
+   * @return The y-coordinate.
+   */
+  public double getDestinationY() {
+    return this.destinationY;
+  }
+
+  /**
+   * Applies the decay of the ticks since the last call by growing the scale of new deposits.
+   *
+   * @param time The current time.
+   */
+  private void age(long time) {
+    if (time <= this.lastTime) {
+      return;
+    }
+    double nextScale = this.scale / Math.pow(DECAY, time - this.lastTime);
+    this.lastTime = time;
+
+    // Bring the stored values back into range before the scale overflows, a scale that already
+    // overflowed means everything stored has faded to nothing
+    if (nextScale > MAX_SCALE) {
+      for (int cell = 0; cell < this.strengths.length; cell++) {
+        this.strengths[cell] /= nextScale;
+        this.weightedX[cell] /= nextScale;
+        this.weightedY[cell] /= nextScale;
+      }
+      nextScale = 1.0;
+    }
+    this.scale = nextScale;
+  }
+
+  /**
+   * Returns the index of the cell containing a point, clamping points outside the battlefield.
+   *
+   * @param x The x-coordinate of the point.
+   * @param y The y-coordinate of the point.
+   * @return The row-major index of the cell.
+   */
+  private int getCell(double x, double y) {
+    return this.getRow(y) * this.columns + this.getColumn(x);
+  }
+
+  /**
+   * Returns the column containing an x-coordinate.
+   *
+   * @param x The x-coordinate.
+   * @return The column, between 0 and <i>columns</i> - 1.
+   */
+  private int getColumn(double x) {
+    return Math.max(0, Math.min(this.columns - 1, (int) (x / CELL_SIZE)));
+  }
+
+  /**
+   * Returns the row containing a y-coordinate.
+   *
+   * @param y The y-coordinate.
+   * @return The row, between 0 and <i>rows</i> - 1.
+   */
+  private int getRow(double y) {
+    return Math.max(0, Math.min(this.rows - 1, (int) (y / CELL_SIZE)));
+  }
+
+  /**
+   * Returns the square of a value.
+   *
+   * @param value The value.
+   * @return The value multiplied by itself.
+   */
+  private static double square(double value) {
+    return value * value;
+  }
+}
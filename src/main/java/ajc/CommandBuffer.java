@@ -0,0 +1,135 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import java.util.Arrays;
+
+/**
+ * Collects the movement, gun, radar and fire intents of every subsystem during a tick so they can
+ * be committed together with a single call to <i>execute</i>.
+ *
+ * Each kind of command is a channel holding at most one intent. An intent replaces the one already
+ * in its channel only if its priority is at least as high, so wall avoidance beats dodging, which
+ * beats engaging a target, which beats routine movement, no matter which runs last in the tick.
+ * Channels that received no intent leave the robot's previous command running.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class CommandBuffer {
+  /**
+   * The kinds of command a robot can be given in a tick.
+   */
+  public static enum Channel {
+    /** Turning the body clockwise in radians. */
+    BODY_TURN,
+
+    /** Moving toward the front of the body in pixels, negative to move toward the back. */
+    DISTANCE,
+
+    /** Turning the gun clockwise in radians. */
+    GUN_TURN,
+
+    /** Turning the radar clockwise in radians. */
+    RADAR_TURN,
+
+    /** Firing a bullet of the given power. */
+    FIRE;
+  }
+
+  /**
+   * How important an intent is, from least to most important.
+   */
+  public static enum Priority {
+    /** Movement and scanning that runs when nothing else wants the robot. */
+    ROUTINE,
+
+    /** Squaring off against, aiming at and firing at the target. */
+    ENGAGE,
+
+    /** Dodging enemy fire and collisions. */
+    EVADE,
+
+    /** Keeping the robot off the walls. */
+    WALL;
+  }
+
+  /**
+   * The value of the intent in each channel.
+   */
+  private final double[] values = new double[Channel.values().length];
+
+  /**
+   * The priority ordinal of the intent in each channel, or -1 if the channel is empty.
+   */
+  private final int[] priorities = new int[Channel.values().length];
+
+  /**
+   * Creates an empty buffer.
+   */
+  public CommandBuffer() {
+    this.clear();
+  }
+
+  /**
+   * Offers an intent, which replaces the channel's intent unless that one has a higher priority.
+   *
+   * @param channel The kind of command.
+   * @param value The value of the command in the channel's units.
+   * @param priority How important the intent is.
+   * @return <i>true</i> if the intent was accepted and <i>false</i> if it was overruled.
+   */
+  public boolean offer(Channel channel, double value, Priority priority) {
+    int index = channel.ordinal();
+    if (priority.ordinal() < this.priorities[index]) {
+      return false;
+    }
+    this.values[index] = value;
+    this.priorities[index] = priority.ordinal();
+    return true;
+  }
+
+  /**
+   * Determines if a channel received an intent this tick.
+   *
+   * @param channel The kind of command.
+   * @return <i>true</i> if the channel holds an intent and <i>false</i> otherwise.
+   */
+  public boolean has(Channel channel) {
+    return this.priorities[channel.ordinal()] >= 0;
+  }
+
+  /**
+   * Returns the value of a channel's intent.
+   *
+   * @param channel The kind of command.
+   * @param fallback The value to return if the channel is empty, such as the robot's remaining
+   * command.
+   * @return The value of the intent, or <i>fallback</i> if there is none.
+   */
+  public double get(Channel channel, double fallback) {
+    return this.has(channel) ? this.values[channel.ordinal()] : fallback;
+  }
+
+  /**
+   * Empties every channel, after the intents have been committed.
+   */
+  public void clear() {
+    Arrays.fill(this.priorities, -1);
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+/**
+ * A custom event condition that knows which of the robot's typed callbacks handles it.
+ *
+ * The robot's <i>onCustomEvent</i> hands every condition implementing this interface its listener
+ * and lets the condition call the right callback, so adding a condition never requires a new case
+ * keyed on its name.
+ *
+ * @author Anthony Christe
+ *
+ */
+public interface DispatchingCondition {
+  /**
+   * Reports this condition to the matching callback of a listener after it fired.
+   *
+   * @param listener The listener to report to.
+   */
+  void dispatch(SensorListener listener);
+}
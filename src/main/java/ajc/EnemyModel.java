@@ -0,0 +1,241 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ajc;
+
+import robocode.util.Utils;
+
+/**
+ * What this robot knows about the position and motion of a single enemy robot.
+ *
+ * The model keeps the two most recent scans so that the enemy's turn rate and its position when
+ * it fired can be recovered.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class EnemyModel {
+  /**
+   * The name of the enemy robot.
+   */
+  private final String name;
+
+  /**
+   * The x-coordinate of the enemy at its last scan.
+   */
+  private double x;
+
+  /**
+   * The y-coordinate of the enemy at its last scan.
+   */
+  private double y;
+
+  /**
+   * The heading of the enemy in radians at its last scan.
+   */
+  private double heading;
+
+  /**
+   * The velocity of the enemy at its last scan.
+   */
+  private double velocity;
+
+  /**
+   * The energy of the enemy at its last scan.
+   */
+  private double energy;
+
+  /**
+   * The distance from this robot to the enemy at its last scan.
+   */
+  private double distance;
+
+  /**
+   * The time of the last scan, or -1 if the enemy has not been scanned this round.
+   */
+  private long scanTime = -1;
+
+  /**
+   * The x-coordinate of the enemy at the scan before the last one.
+   */
+  private double previousX;
+
+  /**
+   * The y-coordinate of the enemy at the scan before the last one.
+   */
+  private double previousY;
+
+  /**
+   * The heading of the enemy in radians at the scan before the last one.
+   */
+  private double previousHeading;
+
+  /**
+   * The time of the scan before the last one, or -1 if there was none this round.
+   */
+  private long previousScanTime = -1;
+
+  /**
+   * Creates a model for an enemy that has not been scanned yet.
+   *
+   * @param name The name of the enemy robot.
+   */
+  public EnemyModel(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Forgets the enemy's scans once its position is no longer known, such as at the start of a
+   * new round or after it dies.
+   */
+  public void reset() {
+    this.scanTime = -1;
+    this.previousScanTime = -1;
+  }
+
+  /**
+   * Records a new scan of the enemy, keeping the previous one.
+   *
+   * @param time The time of the scan.
+   * @param x The x-coordinate of the enemy.
+   * @param y The y-coordinate of the enemy.
+   * @param heading The heading of the enemy in radians.
+   * @param velocity The velocity of the enemy.
+   * @param energy The energy of the enemy.
+   * @param distance The distance from this robot to the enemy.
+   */
+  public void update(long time, double x, double y, double heading, double velocity,
+      double energy, double distance) {
+    this.previousX = this.x;
+    this.previousY = this.y;
+    this.previousHeading = this.heading;
+    this.previousScanTime = this.scanTime;
+
+    this.scanTime = time;
+    this.x = x;
+    this.y = y;
+    this.heading = heading;
+    this.velocity = velocity;
+    this.energy = energy;
+    this.distance = distance;
+  }
+
+  /**
+   * Returns the name of the enemy robot.
+   *
+   * @return The name of the enemy.
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Returns the x-coordinate of the enemy at its last scan.
+   *
+   * @return The x-coordinate.
+   */
+  public double getX() {
+    return this.x;
+  }
+
+  /**
+   * Returns the y-coordinate of the enemy at its last scan.
+   *
+   * @return The y-coordinate.
+   */
+  public double getY() {
+    return this.y;
+  }
+
+  /**
+   * Returns the heading of the enemy at its last scan.
+   *
+   * @return The heading in radians.
+   */
+  public double getHeading() {
+    return this.heading;
+  }
+
+  /**
+   * Returns the velocity of the enemy at its last scan.
+   *
+   * @return The velocity, negative when the enemy is moving backwards.
+   */
+  public double getVelocity() {
+    return this.velocity;
+  }
+
+  /**
+   * Returns the energy of the enemy at its last scan.
+   *
+   * @return The energy.
+   */
+  public double getEnergy() {
+    return this.energy;
+  }
+
+  /**
+   * Returns the distance from this robot to the enemy at its last scan.
+   *
+   * @return The distance in pixels.
+   */
+  public double getDistance() {
+    return this.distance;
+  }
+
+  /**
+   * Returns the time of the last scan.
+   *
+   * @return The time of the last scan, or -1 if the enemy has not been scanned this round.
+   */
+  public long getScanTime() {
+    return this.scanTime;
+  }
+
+  /**
+   * Returns the x-coordinate the enemy fired from if it fired just before its last scan.
+   *
+   * Bullets leave from where the robot was at the start of the turn it fired, which is its
+   * position at the previous scan when the enemy is scanned every turn.
+   *
+   * @return The x-coordinate of the enemy's previous scan, or of its last scan if there was none.
+   */
+  public double getFiringX() {
+    return this.previousScanTime < 0 ? this.x : this.previousX;
+  }
+
+  /**
+   * Returns the y-coordinate the enemy fired from if it fired just before its last scan.
+   *
+   * @return The y-coordinate of the enemy's previous scan, or of its last scan if there was none.
+   */
+  public double getFiringY() {
+    return this.previousScanTime < 0 ? this.y : this.previousY;
+  }
+
+  /**
+   * Returns how fast the enemy is turning, averaged over the ticks between its last two scans.
+   *
+   * @return The turn rate in radians per tick, or 0 if the enemy has been scanned only once.
+   */
+  public double getTurnRate() {
+    if (this.previousScanTime < 0 || this.scanTime <= this.previousScanTime) {
+      return 0.0;
+    }
+    return Utils.normalRelativeAngle(this.heading - this.previousHeading)
+        / (this.scanTime - this.previousScanTime);
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+/**
+ * A fixed-capacity ring buffer of the energies scanned for a single enemy robot.
+ *
+ * Once the buffer is full, recording a new energy overwrites the oldest one. Recording and reading
+ * energies are constant time and never allocate, so the history can be updated on every scan.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class EnergyHistory {
+  /**
+   * The number of energies kept when no capacity is given.
+   */
+  public static final int DEFAULT_CAPACITY = 16;
+
+  /**
+   * Backing storage for the recorded energies.
+   */
+  private final double[] energies;
+
+  /**
+   * Index in <i>energies</i> that the next recorded energy will be written to.
+   */
+  private int head = 0;
+
+  /**
+   * The number of energies currently stored.
+   */
+  private int size = 0;
+
+  /**
+   * Creates an energy history that holds up to <i>DEFAULT_CAPACITY</i> energies.
+   */
+  public EnergyHistory() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates an energy history with a custom capacity.
+   *
+   * @param capacity The maximum number of energies to remember, must be at least 2.
+   */
+  public EnergyHistory(int capacity) {
+    if (capacity < 2) {
+      throw new IllegalArgumentException("EnergyHistory expects a capacity of at least 2");
+    }
+    this.energies = new double[capacity];
+  }
+
+  /**
+   * Records the most recently scanned energy, overwriting the oldest energy if full.
+   *
+   * @param energy The scanned energy of the enemy robot.
+   */
+  public void add(double energy) {
+    this.energies[this.head] = energy;
+    this.head = (this.head + 1) % this.energies.length;
+    if (this.size < this.energies.length) {
+      this.size++;
+    }
+  }
+
+  /**
+   * Returns a recorded energy counting backwards from the most recent scan.
+   *
+   * @param scansAgo 0 for the most recent energy, 1 for the one before it, and so on.
+   * @return The energy recorded <i>scansAgo</i> scans before the most recent one.
+   */
+  public double get(int scansAgo) {
+    if (scansAgo < 0 || scansAgo >= this.size) {
+      throw new IndexOutOfBoundsException("No energy recorded " + scansAgo + " scans ago");
+    }
+    int index = this.head - 1 - scansAgo;
+    if (index < 0) {
+      index += this.energies.length;
+    }
+    return this.energies[index];
+  }
+
+  /**
+   * Returns the most recently recorded energy.
+   *
+   * @return The energy from the latest scan.
+   */
+  public double getLatest() {
+    return this.get(0);
+  }
+
+  /**
+   * Forgets every energy except the most recent one.
+   */
+  public void retainLatest() {
+    if (this.size > 1) {
+      this.size = 1;
+    }
+  }
+
+  /**
+   * Forgets every recorded energy.
+   */
+  public void clear() {
+    this.size = 0;
+  }
+
+  /**
+   * Returns the number of energies currently recorded.
+   *
+   * @return The number of recorded energies, never more than the capacity.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns the maximum number of energies this history can hold.
+   *
+   * @return The capacity of this history.
+   */
+  public int capacity() {
+    return this.energies.length;
+  }
+}
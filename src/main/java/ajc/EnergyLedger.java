@@ -0,0 +1,185 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import java.util.HashMap;
+import java.util.Map;
+import robocode.Rules;
+
+/**
+ * Keeps a per-enemy account of every known cause of an energy change between two scans.
+ *
+ * Our bullets hitting an enemy, ramming, enemies hitting walls and enemy bullets hitting us all
+ * change an enemy's energy. Whatever change is left unexplained when the enemy is scanned again is
+ * attributed to the enemy firing, and the size of that change is the power of the fired bullet.
+ *
+ * Bullets colliding with bullets do not change the energy of either robot, so they need no entry.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class EnergyLedger {
+  /**
+   * Energy drops within this distance of a legal bullet power are still treated as a shot.
+   */
+  private static final double TOLERANCE = 0.001;
+
+  /**
+   * Distance from the center of a robot to its edge, used to tell when an enemy is against a wall.
+   */
+  private static final double HALF_ROBOT_SIZE = 18.0;
+
+  /**
+   * Accounts of all scanned enemy robots keyed by name.
+   */
+  private final Map<String, Account> accounts = new HashMap<>();
+
+  /**
+   * The energy history and unexplained energy changes of a single enemy.
+   */
+  private static final class Account {
+    /** Energies recorded at each scan. */
+    private final EnergyHistory energies = new EnergyHistory();
+
+    /** Sum of the known energy changes since the last scan, positive for gains. */
+    private double explainedDelta = 0.0;
+
+    /** The velocity of the enemy at its last scan. */
+    private double lastVelocity = 0.0;
+  }
+
+  /**
+   * Records a scan of an enemy and infers whether it has fired since its previous scan.
+   *
+   * @param name The name of the scanned robot.
+   * @param energy The scanned energy of the robot.
+   * @param velocity The scanned velocity of the robot.
+   * @param x The x-coordinate of the robot.
+   * @param y The y-coordinate of the robot.
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   * @return The power of the bullet the robot fired, or 0 if the robot did not fire.
+   */
+  public double recordScan(String name, double energy, double velocity, double x, double y,
+      double fieldWidth, double fieldHeight) {
+    Account account = this.getAccount(name);
+    EnergyHistory energies = account.energies;
+
+    // A robot that stopped dead against a wall lost energy from hitting it
+    if (velocity == 0 && account.lastVelocity != 0
+        && isAgainstWall(x, y, fieldWidth, fieldHeight)) {
+      account.explainedDelta -= Rules.getWallHitDamage(account.lastVelocity);
+    }
+
+    energies.add(energy);
+    double bulletPower = 0;
+    if (energies.size() > 1) {
+      double unexplainedDrop = energies.get(1) + account.explainedDelta - energy;
+      if (unexplainedDrop >= Rules.MIN_BULLET_POWER - TOLERANCE
+          && unexplainedDrop <= Rules.MAX_BULLET_POWER + TOLERANCE) {
+        bulletPower = Math.max(Rules.MIN_BULLET_POWER,
+            Math.min(Rules.MAX_BULLET_POWER, unexplainedDrop));
+      }
+    }
+
+    account.explainedDelta = 0.0;
+    account.lastVelocity = velocity;
+    return bulletPower;
+  }
+
+  /**
+   * Records that one of our bullets hit an enemy.
+   *
+   * @param name The name of the robot that was hit.
+   * @param power The power of our bullet.
+   */
+  public void recordBulletHit(String name, double power) {
+    this.getAccount(name).explainedDelta -= Rules.getBulletDamage(power);
+  }
+
+  /**
+   * Records that we collided with an enemy, which damages both robots.
+   *
+   * @param name The name of the robot we collided with.
+   */
+  public void recordRam(String name) {
+    this.getAccount(name).explainedDelta -= Rules.ROBOT_HIT_DAMAGE;
+  }
+
+  /**
+   * Records that an enemy bullet hit us, which gives the enemy energy back.
+   *
+   * @param name The name of the robot whose bullet hit us.
+   * @param power The power of the enemy bullet.
+   */
+  public void recordHitByBullet(String name, double power) {
+    this.getAccount(name).explainedDelta += Rules.getBulletHitBonus(power);
+  }
+
+  /**
+   * Forgets every enemy's energies at the start of a new round, since all robots start over with
+   * full energy.
+   */
+  public void resetRound() {
+    for (Account account : this.accounts.values()) {
+      account.energies.clear();
+      account.explainedDelta = 0.0;
+      account.lastVelocity = 0.0;
+    }
+  }
+
+  /**
+   * Returns the energy history of an enemy.
+   *
+   * @param name The name of the enemy robot.
+   * @return The energies recorded for the robot, or null if it has never been scanned.
+   */
+  public EnergyHistory getEnergies(String name) {
+    Account account = this.accounts.get(name);
+    return account == null ? null : account.energies;
+  }
+
+  /**
+   * Returns the account of an enemy, creating it the first time the enemy is seen.
+   *
+   * @param name The name of the enemy robot.
+   * @return The account of the enemy.
+   */
+  private Account getAccount(String name) {
+    Account account = this.accounts.get(name);
+    if (account == null) {
+      account = new Account();
+      this.accounts.put(name, account);
+    }
+    return account;
+  }
+
+  /**
+   * Determines if a robot at the given position is touching one of the walls.
+   *
+   * @param x The x-coordinate of the robot.
+   * @param y The y-coordinate of the robot.
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   * @return <i>true</i> if the robot is touching a wall and <i>false</i> otherwise.
+   */
+  private static boolean isAgainstWall(double x, double y, double fieldWidth, double fieldHeight) {
+    double margin = HALF_ROBOT_SIZE + 1;
+    return x <= margin || y <= margin || x >= fieldWidth - margin || y >= fieldHeight - margin;
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import robocode.util.Utils;
+
+/**
+ * Plans each shot a tick before the gun cools so it is fired on the first tick it can be.
+ *
+ * Robocode fires a bullet along the gun heading the robot saw when it called <i>setFire</i>, so a
+ * gun that only starts turning toward the target once it is cool loses at least one tick. Instead,
+ * on the tick before the gun cools the robot aims for where the target will be when the gun is
+ * cool, turns the gun there and plans the shot. On the cool tick the planned shot is fired as long
+ * as the gun reached the planned angle closely enough to still hit the target.
+ *
+ * Every cool tick that passes without a shot is reported as wasted, so the pipeline's efficiency
+ * can be measured.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class FirePipeline {
+  /**
+   * Distance from the center of a robot to its edge, which sets how far off the gun may be.
+   */
+  private static final double HALF_ROBOT_SIZE = 18.0;
+
+  /**
+   * Allows for rounding when dividing the gun heat by the cooling rate.
+   */
+  private static final double EPSILON = 1e-9;
+
+  /**
+   * The tick the planned shot is to be fired on, or -1 if no shot is planned.
+   */
+  private long plannedTime = -1;
+
+  /**
+   * The absolute gun heading in radians the planned shot is to be fired at.
+   */
+  private double plannedAngle;
+
+  /**
+   * The power of the planned shot.
+   */
+  private double plannedPower;
+
+  /**
+   * The distance to the target when the shot was planned.
+   */
+  private double plannedDistance;
+
+  /**
+   * The largest difference in radians between the gun heading and the planned angle that still
+   * hits the target.
+   */
+  private double plannedTolerance;
+
+  /**
+   * The name of the robot the planned shot is aimed at.
+   */
+  private String plannedTarget;
+
+  /**
+   * The last tick a shot was fired on, or -1 if none has been fired this round.
+   */
+  private long firedTime = -1;
+
+  /**
+   * Returns the number of ticks until the gun is cool enough to fire.
+   *
+   * @param gunHeat The current heat of the gun.
+   * @param coolingRate The heat the gun loses every tick.
+   * @return 0 if the gun can fire now, otherwise the number of ticks until it can.
+   */
+  public static int getTicksUntilCool(double gunHeat, double coolingRate) {
+    if (gunHeat <= 0) {
+      return 0;
+    }
+    return (int) Math.ceil(gunHeat / coolingRate - EPSILON);
+  }
+
+  /**
+   * Determines if the gun should be aimed for a shot on the next tick rather than just tracking
+   * the target.
+   *
+   * @param gunHeat The current heat of the gun.
+   * @param coolingRate The heat the gun loses every tick.
+   * @return <i>true</i> if the gun is cool now or will be on the next tick.
+   */
+  public static boolean isAimingTick(double gunHeat, double coolingRate) {
+    return getTicksUntilCool(gunHeat, coolingRate) <= 1;
+  }
+
+  /**
+   * Plans a shot, replacing any shot planned before.
+   *
+   * @param fireTime The tick the shot is to be fired on.
+   * @param angle The absolute angle in radians the gun is being turned to.
+   * @param power The power of the shot.
+   * @param distance The distance to the target, which sets how far off the gun may be.
+   * @param target The name of the robot being aimed at.
+   */
+  public void plan(long fireTime, double angle, double power, double distance, String target) {
+    this.plannedTime = fireTime;
+    this.plannedAngle = angle;
+    this.plannedPower = power;
+    this.plannedDistance = distance;
+    this.plannedTolerance = Math.atan2(HALF_ROBOT_SIZE, Math.max(HALF_ROBOT_SIZE, distance));
+    this.plannedTarget = target;
+  }
+
+  /**
+   * Fires the shot planned for this tick if the gun is cool and pointing where it was planned to.
+   *
+   * A planned shot is used at most once, so calling this again in the same tick returns 0.
+   *
+   * @param time The current tick.
+   * @param gunHeat The current heat of the gun.
+   * @param gunHeading The current absolute gun heading in radians.
+   * @return The power to fire with, or 0 if no shot should be fired.
+   */
+  public double fire(long time, double gunHeat, double gunHeading) {
+    if (gunHeat > 0 || this.plannedTime != time) {
+      return 0.0;
+    }
+    this.plannedTime = -1;
+    if (Math.abs(Utils.normalRelativeAngle(this.plannedAngle - gunHeading))
+        > this.plannedTolerance) {
+      return 0.0;
+    }
+    this.firedTime = time;
+    return this.plannedPower;
+  }
+
+  /**
+   * Determines if the gun was cool this tick but no shot was fired.
+   *
+   * @param time The current tick.
+   * @param gunHeat The current heat of the gun.
+   * @return <i>true</i> if this tick's chance to fire was wasted and <i>false</i> otherwise.
+   */
+  public boolean isWasted(long time, double gunHeat) {
+    return gunHeat <= 0 && this.firedTime != time;
+  }
+
+  /**
+   * Returns the distance to the target when the most recent shot was planned.
+   *
+   * @return The distance in pixels.
+   */
+  public double getPlannedDistance() {
+    return this.plannedDistance;
+  }
+
+  /**
+   * Returns the name of the robot the most recent shot was planned against.
+   *
+   * @return The name of the target, or null if no shot has been planned.
+   */
+  public String getPlannedTarget() {
+    return this.plannedTarget;
+  }
+}
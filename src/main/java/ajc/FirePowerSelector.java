@@ -0,0 +1,346 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import java.util.HashMap;
+import java.util.Map;
+import robocode.Bullet;
+import robocode.Rules;
+
+/**
+ * Chooses the bullet power that gains the most energy over the enemy for the energy it costs,
+ * based on how often we have hit each enemy at each distance.
+ *
+ * A gun that aims at random hits a robot with the chance of the robot's angular width over the
+ * bullet's escape angle, so slower, more powerful bullets are easier to dodge. For every enemy and
+ * every distance bucket the selector counts the hits it has scored and the hits a random gun would
+ * have scored with the same bullets, and the ratio between the two is how much better than random
+ * our gun is there. Multiplying the random gun's chance by that ratio estimates the chance of
+ * hitting with any power.
+ *
+ * A hit damages the enemy and gives us back energy, while every shot costs its power and heats the
+ * gun. The chosen power is the one whose expected damage plus energy returned, less its cost, is
+ * highest per unit of gun heat, so a gun that rarely hits saves its energy with weak bullets while
+ * a gun that hits often fires strong ones.
+ *
+ * The random gun's chance and the gain and cost of every power only depend on the distance and the
+ * power, so they are computed once for the battlefield's size when the selector is created. Powers
+ * above what it takes to destroy the enemy are never chosen, so energy isn't wasted on overkill.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class FirePowerSelector {
+  /**
+   * The width in pixels of each distance bucket.
+   */
+  public static final double DISTANCE_BUCKET_WIDTH = 100.0;
+
+  /**
+   * The difference between neighboring powers considered.
+   */
+  public static final double POWER_STEP = 0.1;
+
+  /**
+   * The number of powers considered, from <i>POWER_STEP</i> up to the maximum bullet power.
+   */
+  public static final int POWERS = (int) Math.round(Rules.MAX_BULLET_POWER / POWER_STEP);
+
+  /**
+   * Distance from the center of a robot to its edge.
+   */
+  private static final double HALF_ROBOT_SIZE = 18.0;
+
+  /**
+   * Random hits added to a bucket, so a few lucky shots don't swing the estimate.
+   */
+  private static final double PRIOR_HITS = 1.0;
+
+  /**
+   * How much better than a random gun an untried bucket is assumed to be.
+   */
+  private static final double PRIOR_SKILL = 2.0;
+
+  /**
+   * Allows for rounding when converting a power to its index.
+   */
+  private static final double EPSILON = 1e-9;
+
+  /**
+   * The number of distance buckets needed to cover the battlefield's diagonal.
+   */
+  private final int buckets;
+
+  /**
+   * The chance of a random gun hitting, <i>POWERS</i> entries per distance bucket.
+   */
+  private final double[] randomHitRates;
+
+  /**
+   * The damage plus energy returned by a hit with every power, per unit of gun heat.
+   */
+  private final double[] hitGains = new double[POWERS];
+
+  /**
+   * The energy every power costs, per unit of gun heat.
+   */
+  private final double[] costs = new double[POWERS];
+
+  /**
+   * The hit counts of every enemy asked for, keyed by name.
+   */
+  private final Map<String, Statistics> statistics = new HashMap<>();
+
+  /**
+   * Our bullets still in flight and where to record their outcome.
+   */
+  private final Map<Bullet, Shot> shots = new HashMap<>();
+
+  /**
+   * The scored and random hits of a single enemy in each distance bucket.
+   */
+  private static final class Statistics {
+    /** The hits we scored in each bucket. */
+    private final double[] hits;
+
+    /** The hits a random gun would have scored with the same bullets in each bucket. */
+    private final double[] randomHits;
+
+    /**
+     * Creates statistics with no shots recorded.
+     *
+     * @param buckets The number of distance buckets.
+     */
+    private Statistics(int buckets) {
+      this.hits = new double[buckets];
+      this.randomHits = new double[buckets];
+    }
+  }
+
+  /**
+   * A bullet in flight and the enemy and bucket it was fired at.
+   */
+  private static final class Shot {
+    /** The name of the enemy the bullet was fired at. */
+    private final String name;
+
+    /** The statistics of the enemy. */
+    private final Statistics statistics;
+
+    /** The distance bucket the bullet was fired from. */
+    private final int bucket;
+
+    /**
+     * Creates a shot.
+     *
+     * @param name The name of the enemy the bullet was fired at.
+     * @param statistics The statistics of the enemy.
+     * @param bucket The distance bucket the bullet was fired from.
+     */
+    private Shot(String name, Statistics statistics, int bucket) {
+      this.name = name;
+      this.statistics = statistics;
+      this.bucket = bucket;
+    }
+  }
+
+  /**
+   * Creates a selector and computes the random gun's chances for a battlefield.
+   *
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   */
+  public FirePowerSelector(double fieldWidth, double fieldHeight) {
+    this.buckets =
+        Math.max(1, (int) Math.ceil(Math.hypot(fieldWidth, fieldHeight) / DISTANCE_BUCKET_WIDTH));
+    this.randomHitRates = new double[this.buckets * POWERS];
+    for (int i = 0; i < POWERS; i++) {
+      double power = getPowerAt(i);
+      double heat = Rules.getGunHeat(power);
+      this.hitGains[i] = (Rules.getBulletDamage(power) + Rules.getBulletHitBonus(power)) / heat;
+      this.costs[i] = power / heat;
+      double escapeAngle = GuessFactorGun.getMaxEscapeAngle(Rules.getBulletSpeed(power));
+      for (int bucket = 0; bucket < this.buckets; bucket++) {
+        double distance = Math.max(2 * HALF_ROBOT_SIZE, (bucket + 0.5) * DISTANCE_BUCKET_WIDTH);
+        this.randomHitRates[bucket * POWERS + i] =
+            Math.min(1.0, Math.atan(HALF_ROBOT_SIZE / distance) / escapeAngle);
+      }
+    }
+  }
+
+  /**
+   * Chooses the power to fire at an enemy with.
+   *
+   * @param name The name of the enemy.
+   * @param distance The distance to the enemy.
+   * @param enemyEnergy The energy of the enemy, which caps the power at what it takes to destroy
+   * the enemy.
+   * @return The power with the highest expected energy gain per unit of gun heat.
+   */
+  public double getPower(String name, double distance, double enemyEnergy) {
+    int bucket = this.getBucket(distance);
+    double skill = this.getSkill(name, bucket);
+    int maxIndex = getIndex(getKillPower(enemyEnergy));
+
+    int best = 0;
+    double bestScore = -1.0;
+    for (int i = 0; i <= maxIndex; i++) {
+      double score = Math.min(1.0, skill * this.randomHitRates[bucket * POWERS + i])
+          * this.hitGains[i] - this.costs[i];
+      // Ties go to the more powerful bullet, which destroys the enemy sooner
+      if (score >= bestScore) {
+        best = i;
+        bestScore = score;
+      }
+    }
+    return getPowerAt(best);
+  }
+
+  /**
+   * Estimates the chance of hitting an enemy with a bullet.
+   *
+   * @param name The name of the enemy.
+   * @param distance The distance to the enemy.
+   * @param power The power of the bullet.
+   * @return The estimated chance of hitting, between 0 and 1.
+   */
+  public double getHitRate(String name, double distance, double power) {
+    int bucket = this.getBucket(distance);
+    return Math.min(1.0,
+        this.getSkill(name, bucket) * this.randomHitRates[bucket * POWERS + getIndex(power)]);
+  }
+
+  /**
+   * Records that a bullet was fired at an enemy.
+   *
+   * @param bullet The bullet that was fired.
+   * @param name The name of the enemy the bullet was fired at.
+   * @param distance The distance to the enemy when the bullet was fired.
+   */
+  public void recordShot(Bullet bullet, String name, double distance) {
+    Statistics enemyStatistics = this.getStatistics(name);
+    int bucket = this.getBucket(distance);
+    enemyStatistics.randomHits[bucket] +=
+        this.randomHitRates[bucket * POWERS + getIndex(bullet.getPower())];
+    this.shots.put(bullet, new Shot(name, enemyStatistics, bucket));
+  }
+
+  /**
+   * Records that a bullet hit a robot, which only counts as a hit if it was the bullet's target.
+   *
+   * @param bullet The bullet that hit.
+   * @param victim The name of the robot that was hit.
+   */
+  public void recordHit(Bullet bullet, String victim) {
+    Shot shot = this.shots.remove(bullet);
+    if (shot != null && shot.name.equals(victim)) {
+      shot.statistics.hits[shot.bucket]++;
+    }
+  }
+
+  /**
+   * Records that a bullet missed, either by leaving the battlefield or by hitting another bullet.
+   *
+   * @param bullet The bullet that missed.
+   */
+  public void recordMiss(Bullet bullet) {
+    this.shots.remove(bullet);
+  }
+
+  /**
+   * Forgets the bullets in flight at the end of a round while keeping the hit counts.
+   */
+  public void resetRound() {
+    this.shots.clear();
+  }
+
+  /**
+   * Returns the lowest power that destroys a robot with the given energy.
+   *
+   * @param energy The energy of the robot.
+   * @return The power whose damage is at least the energy, at most the maximum bullet power.
+   */
+  static double getKillPower(double energy) {
+    // A bullet does 4 damage per unit of power, plus 2 per unit above 1
+    double power = energy <= 4.0 ? energy / 4.0 : (energy + 2.0) / 6.0;
+    return Math.max(Rules.MIN_BULLET_POWER, Math.min(Rules.MAX_BULLET_POWER, power));
+  }
+
+  /**
+   * Returns how much better than a random gun we have hit an enemy in a distance bucket.
+   *
+   * @param name The name of the enemy.
+   * @param bucket The distance bucket.
+   * @return The ratio of scored to random hits, <i>PRIOR_SKILL</i> if nothing has been recorded.
+   */
+  private double getSkill(String name, int bucket) {
+    Statistics enemyStatistics = this.statistics.get(name);
+    if (enemyStatistics == null) {
+      return PRIOR_SKILL;
+    }
+    return (enemyStatistics.hits[bucket] + PRIOR_HITS * PRIOR_SKILL)
+        / (enemyStatistics.randomHits[bucket] + PRIOR_HITS);
+  }
+
+  /**
+   * Returns the statistics of an enemy, creating them the first time the enemy is shot at.
+   *
+   * @param name The name of the enemy.
+   * @return The statistics of the enemy.
+   */
+  private Statistics getStatistics(String name) {
+    Statistics enemyStatistics = this.statistics.get(name);
+    if (enemyStatistics == null) {
+      enemyStatistics = new Statistics(this.buckets);
+      this.statistics.put(name, enemyStatistics);
+    }
+    return enemyStatistics;
+  }
+
+  /**
+   * Returns the distance bucket a distance falls in.
+   *
+   * @param distance The distance.
+   * @return The bucket, the last one for distances beyond the battlefield's diagonal.
+   */
+  private int getBucket(double distance) {
+    return Math.max(0, Math.min(this.buckets - 1, (int) (distance / DISTANCE_BUCKET_WIDTH)));
+  }
+
+  /**
+   * Returns the index of the smallest considered power that is at least a power, so a kill power
+   * is never rounded below what it takes.
+   *
+   * @param power The power.
+   * @return The index between 0 and <i>POWERS - 1</i>.
+   */
+  private static int getIndex(double power) {
+    int index = (int) Math.ceil(power / POWER_STEP - EPSILON) - 1;
+    return Math.max(0, Math.min(POWERS - 1, index));
+  }
+
+  /**
+   * Returns the power at an index.
+   *
+   * @param index The index between 0 and <i>POWERS - 1</i>.
+   * @return The power.
+   */
+  private static double getPowerAt(int index) {
+    return Rules.MAX_BULLET_POWER * (index + 1) / POWERS;
+  }
+}
@@ -16,79 +16,195 @@
  */
 package ajc;
 
-import java.util.ArrayList;
-import java.util.Map;
 import robocode.Condition;
 
 /**
  * This event is fired when our detects an energy drop in an enemy robot being scanned.
  *
+ * Only energy drops that the EnergyLedger attributes to the enemy firing are reported. Shots are
+ * detected once, when the enemy is scanned, and queued with <i>enqueue</i>. The
+ * engine polls <i>test</i> every tick, which only drains the queue, so the per-tick cost does not
+ * depend on how many enemies have been scanned.
+ *
  * @author Anthony Christe
  * 
  */
-public class FiredUponEvent extends Condition {
+public class FiredUponEvent extends Condition implements Sensor {
   /**
-   * Reference to scanned robots with energy history. 
+   * The maximum number of shots that can be pending between two polls of this event.
    */
-  private Map<String, ArrayList<Double>> scannedRobots;
-  
-  private double lastBulletHitEnergy;
+  private static final int QUEUE_CAPACITY = 16;
 
   /**
-   * Adds the FiredUponEvent to the event queue with the relevant robot histories.
-   * 
-   * @param scannedRobots Map containing list of scanned robots and energy histories.
-   * @param lastBulletHitDamage Stores the amount of damage one of our robots caused on the last
-   *         direct hit.
+   * Names of the robots that fired, in the order the shots were detected.
+   */
+  private final String[] pendingShooters = new String[QUEUE_CAPACITY];
+
+  /**
+   * Power of each pending bullet, parallel to <i>pendingShooters</i>.
+   */
+  private final double[] pendingPowers = new double[QUEUE_CAPACITY];
+
+  /**
+   * The number of shots waiting to be drained.
+   */
+  private int pendingCount = 0;
+
+  /**
+   * Name of the most recent robot drained from the queue.
+   */
+  private String shooterName;
+
+  /**
+   * Bullet power of the most recent shot drained from the queue.
+   */
+  private double bulletPower;
+
+  /**
+   * The number of shots drained by the last successful test.
+   */
+  private int drainedCount;
+
+  /**
+   * Records how long this event takes to test, may be null.
    */
-  public FiredUponEvent(Map<String, ArrayList<Double>> scannedRobots, Double lastBulletHitDamage) {
+  private TurnProfiler profiler;
+
+  /**
+   * Creates the FiredUponEvent with an empty queue of shots.
+   */
+  public FiredUponEvent() {
     super("FiredUponEvent");
-    this.scannedRobots = scannedRobots;
-    this.lastBulletHitEnergy = lastBulletHitDamage;
   }
 
   /**
-   * Checks all scanned robots to see if any of their energies have lowered since the last time 
-   * they were scanned.
+   * Creates the FiredUponEvent with an empty queue of shots that records its test time.
+   * 
+   * @param profiler The profiler to record test times with.
+   */
+  public FiredUponEvent(TurnProfiler profiler) {
+    this();
+    this.profiler = profiler;
+  }
+
+  /**
+   * Queues a shot detected while scanning an enemy robot.
+   * 
+   * If the queue is full, the oldest shot is discarded since the newest shot is the most relevant
+   * to defensive movement.
+   * 
+   * @param shooter The name of the robot that fired.
+   * @param power The inferred power of the fired bullet.
+   */
+  public void enqueue(String shooter, double power) {
+    if (this.pendingCount == QUEUE_CAPACITY) {
+      System.arraycopy(this.pendingShooters, 1, this.pendingShooters, 0, QUEUE_CAPACITY - 1);
+      System.arraycopy(this.pendingPowers, 1, this.pendingPowers, 0, QUEUE_CAPACITY - 1);
+      this.pendingCount--;
+    }
+    this.pendingShooters[this.pendingCount] = shooter;
+    this.pendingPowers[this.pendingCount] = power;
+    this.pendingCount++;
+  }
+
+  /**
+   * Drains the queue of shots as a sensor of the SensorStage.
+   * 
+   * @param snapshot The state of the robot at the start of the tick, which is not needed.
+   * @return <i>true</i> if a scanned robot fired and <i> false otherwise.
+   */
+  @Override
+  public boolean sense(SensorSnapshot snapshot) {
+    return this.drain();
+  }
+
+  /**
+   * Returns the profiler section that fired upon tests are recorded under.
    * 
-   * This method compares the last two scanned energies of a robot to determine if there has been
-   * an energy drop. 
+   * @return The fired upon test section.
+   */
+  @Override
+  public TurnProfiler.Section getSection() {
+    return TurnProfiler.Section.FIRED_UPON_TEST;
+  }
+
+  /**
+   * Reports this event to the listener's fired upon callback.
    * 
-   * We also attempt to determine if the energy drop was due to one of our bullets hitting the 
-   * enemy.
+   * @param listener The listener to report to.
+   */
+  @Override
+  public void dispatch(SensorListener listener) {
+    listener.onFiredUpon(this);
+  }
+
+  /**
+   * Discards every pending shot, such as ones left over from the previous round.
+   */
+  public void clear() {
+    this.drain();
+  }
+
+  /**
+   * Drains the queue of shots detected since the last time this event was tested.
    * 
-   * @return <i>true</i> if the energy dropped in a scanned robot and <i> false otherwise.
+   * @return <i>true</i> if a scanned robot fired and <i> false otherwise.
    */
   @Override
   public boolean test() {
-    int size;
-    double energyDelta;
-    ArrayList<Double> energies;
-
-    for (String enemy : scannedRobots.keySet()) {
-      energies = scannedRobots.get(enemy);
-      size = energies.size();
-      
-      if (size > 1 && robocode.util.Utils.isNear(energies.get(size - 1), 
-          this.lastBulletHitEnergy)) {
-        return false;
-      }
-      
-      if (size > 2) {
-        energyDelta = energies.get(size - 2) - energies.get(size - 1);
-      }
-      else {
-        return false;
-      }
-      
-      
-      
-      if (energyDelta > 0) {
-        energies.removeAll(energies.subList(0, size - 1));
-        return true;
-      }
+    long startTime = TurnProfiler.start();
+    boolean fireEvent = this.drain();
+    if (TurnProfiler.ENABLED && this.profiler != null) {
+      this.profiler.record(TurnProfiler.Section.FIRED_UPON_TEST, startTime);
     }
-    return false;
+    return fireEvent;
   }
 
+  /**
+   * Moves the most recent pending shot into the drained fields and empties the queue.
+   * 
+   * @return <i>true</i> if there was a pending shot and <i>false</i> otherwise.
+   */
+  private boolean drain() {
+    if (this.pendingCount == 0) {
+      return false;
+    }
+
+    this.shooterName = this.pendingShooters[this.pendingCount - 1];
+    this.bulletPower = this.pendingPowers[this.pendingCount - 1];
+    this.drainedCount = this.pendingCount;
+
+    for (int i = 0; i < this.pendingCount; i++) {
+      this.pendingShooters[i] = null;
+    }
+    this.pendingCount = 0;
+    return true;
+  }
+
+  /**
+   * Returns the name of the most recent robot that fired.
+   * 
+   * @return The name of the robot, or null if this event has not fired yet.
+   */
+  public String getShooterName() {
+    return this.shooterName;
+  }
+
+  /**
+   * Returns the power of the most recent shot drained by this event.
+   * 
+   * @return The inferred bullet power.
+   */
+  public double getBulletPower() {
+    return this.bulletPower;
+  }
+
+  /**
+   * Returns how many shots were drained the last time this event fired.
+   * 
+   * @return The number of drained shots.
+   */
+  public int getDrainedCount() {
+    return this.drainedCount;
+  }
 }
@@ -0,0 +1,325 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ajc;
+
+import java.util.HashMap;
+import java.util.Map;
+import robocode.Rules;
+import robocode.util.Utils;
+
+/**
+ * Aims at the guess factor each enemy has most often been found at.
+ *
+ * A guess factor describes where an enemy went while a bullet was in flight, from -1 (as far as it
+ * could get moving backwards around us) through 0 (where it was when we fired) to 1 (as far as it
+ * could get moving forwards). A wave is fired at every scan, and when it reaches the enemy the
+ * enemy's guess factor is added to its statistics.
+ *
+ * The statistics of each enemy live in a single flat double[] of <i>SEGMENTS</i> blocks of
+ * <i>BINS</i> bins, one block for each combination of distance and lateral velocity, so both
+ * updating and aiming only touch the <i>BINS</i> bins of one segment.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class GuessFactorGun {
+  /**
+   * The number of guess factor bins, odd so that guess factor 0 has its own bin.
+   */
+  public static final int BINS = 31;
+
+  /**
+   * The number of distance segments.
+   */
+  public static final int DISTANCE_SEGMENTS = 5;
+
+  /**
+   * The number of lateral velocity segments.
+   */
+  public static final int LATERAL_VELOCITY_SEGMENTS = 5;
+
+  /**
+   * The total number of segments.
+   */
+  public static final int SEGMENTS = DISTANCE_SEGMENTS * LATERAL_VELOCITY_SEGMENTS;
+
+  /**
+   * The width of each distance segment in pixels.
+   */
+  private static final double DISTANCE_SEGMENT_WIDTH = 200.0;
+
+  /**
+   * Upper bounds of each lateral velocity segment except the last.
+   */
+  private static final double[] LATERAL_VELOCITY_BOUNDS = { 1.0, 3.0, 5.0, 7.0 };
+
+  /**
+   * How much a wave counts towards statistics when we did not actually fire along with it.
+   */
+  private static final double VIRTUAL_WAVE_WEIGHT = 0.2;
+
+  /**
+   * The total weight a segment needs before its statistics are trusted for aiming.
+   */
+  private static final double MIN_SEGMENT_WEIGHT = 10.0;
+
+  /**
+   * The guess factor bin in the middle, which aims straight at the enemy.
+   */
+  private static final int MIDDLE_BIN = (BINS - 1) / 2;
+
+  /**
+   * Statistics of every enemy keyed by name, each <i>SEGMENTS * BINS</i> long.
+   */
+  private final Map<String, double[]> statistics = new HashMap<>();
+
+  /**
+   * Waves fired at enemies that have not reached them yet.
+   */
+  private final WaveTracker waves = new WaveTracker(256);
+
+  /**
+   * The last direction each enemy was moving around us, used while it is not moving sideways.
+   */
+  private final Map<String, Integer> lateralDirections = new HashMap<>();
+
+  /**
+   * Adds every wave that has reached an enemy to its statistics.
+   *
+   * @param enemy The enemy that was just scanned.
+   * @param time The current time.
+   * @param maxRadius Waves that have traveled further than this are discarded, such as the
+   * battlefield diagonal.
+   */
+  public void update(EnemyModel enemy, long time, double maxRadius) {
+    this.waves.expireBeyond(maxRadius, time);
+
+    double[] stats = this.getStatistics(enemy.getName());
+    int i = 0;
+    while (i < this.waves.size()) {
+      Wave wave = this.waves.get(i);
+      if (enemy.getName().equals(wave.getTarget())
+          && wave.getRadius(time) >= wave.getDistance(enemy.getX(), enemy.getY())) {
+        double guessFactor = getGuessFactor(wave, enemy.getX(), enemy.getY());
+        this.addGuessFactor(stats, wave.getSegment(), guessFactor, wave.getWeight());
+        this.waves.remove(i);
+      }
+      else {
+        i++;
+      }
+    }
+  }
+
+  /**
+   * Forgets the waves in flight and lateral directions at the start of a new round, keeping the
+   * statistics.
+   */
+  public void resetRound() {
+    this.waves.clear();
+    this.lateralDirections.clear();
+  }
+
+  /**
+   * Fires a wave at an enemy so that its movement is recorded once the wave reaches it.
+   *
+   * @param enemy The enemy being aimed at.
+   * @param x The x-coordinate of this robot.
+   * @param y The y-coordinate of this robot.
+   * @param time The current time.
+   * @param bulletPower The power of the bullet being fired, or that would have been fired.
+   * @param realShot <i>true</i> if a bullet is actually fired along with the wave.
+   */
+  public void fireWave(EnemyModel enemy, double x, double y, long time, double bulletPower,
+      boolean realShot) {
+    double directAngle = RobotUtilities.getAbsoluteBearing(x, y, enemy.getX(), enemy.getY());
+    Wave wave = this.waves.spawn(x, y, time, bulletPower, null);
+    wave.setTarget(enemy.getName(), directAngle, this.getLateralDirection(enemy, directAngle),
+        getSegment(enemy, directAngle), realShot ? 1.0 : VIRTUAL_WAVE_WEIGHT);
+  }
+
+  /**
+   * Returns the absolute angle to aim at to hit an enemy at its most visited guess factor.
+   *
+   * If nothing has been recorded for the enemy's current segment, this aims straight at it.
+   *
+   * @param enemy The enemy being aimed at.
+   * @param x The x-coordinate of this robot.
+   * @param y The y-coordinate of this robot.
+   * @param bulletPower The power of the bullet being fired.
+   * @return The absolute angle to aim at in radians.
+   */
+  public double getAimAngle(EnemyModel enemy, double x, double y, double bulletPower) {
+    double directAngle = RobotUtilities.getAbsoluteBearing(x, y, enemy.getX(), enemy.getY());
+    double[] stats = this.getStatistics(enemy.getName());
+    int base = getSegment(enemy, directAngle) * BINS;
+
+    int bestBin = MIDDLE_BIN;
+    for (int bin = 0; bin < BINS; bin++) {
+      if (stats[base + bin] > stats[base + bestBin]) {
+        bestBin = bin;
+      }
+    }
+
+    double guessFactor = (bestBin - MIDDLE_BIN) / (double) MIDDLE_BIN;
+    return Utils.normalAbsoluteAngle(directAngle + guessFactor
+        * this.getLateralDirection(enemy, directAngle)
+        * getMaxEscapeAngle(Rules.getBulletSpeed(bulletPower)));
+  }
+
+  /**
+   * Determines if enough waves have reached an enemy in its current segment to aim with them.
+   *
+   * @param enemy The enemy being aimed at.
+   * @param x The x-coordinate of this robot.
+   * @param y The y-coordinate of this robot.
+   * @return <i>true</i> if the segment's statistics can be trusted and <i>false</i> otherwise.
+   */
+  public boolean hasStatistics(EnemyModel enemy, double x, double y) {
+    double[] stats = this.getStatistics(enemy.getName());
+    int base = getSegment(enemy,
+        RobotUtilities.getAbsoluteBearing(x, y, enemy.getX(), enemy.getY())) * BINS;
+    double total = 0.0;
+    for (int bin = 0; bin < BINS; bin++) {
+      total += stats[base + bin];
+    }
+    return total >= MIN_SEGMENT_WEIGHT;
+  }
+
+  /**
+   * Returns the statistics of an enemy, creating empty statistics the first time it is seen.
+   *
+   * @param name The name of the enemy robot.
+   * @return The flat array of <i>SEGMENTS * BINS</i> bins.
+   */
+  public double[] getStatistics(String name) {
+    double[] stats = this.statistics.get(name);
+    if (stats == null) {
+      stats = new double[SEGMENTS * BINS];
+      this.statistics.put(name, stats);
+    }
+    return stats;
+  }
+
+  /**
+   * Uses statistics kept elsewhere, such as ones loaded from a previous battle, for an enemy.
+   *
+   * The array is used directly, so anything the gun learns afterwards is written into it.
+   *
+   * @param name The name of the enemy robot.
+   * @param stats The flat array of <i>SEGMENTS * BINS</i> bins.
+   */
+  public void setStatistics(String name, double[] stats) {
+    if (stats.length != SEGMENTS * BINS) {
+      throw new IllegalArgumentException("GuessFactorGun expects " + SEGMENTS * BINS + " bins");
+    }
+    this.statistics.put(name, stats);
+  }
+
+  /**
+   * Returns the guess factor a position lies at on a wave whose target has been set.
+   *
+   * @param wave The wave, whose direct angle and lateral direction describe its target.
+   * @param x The x-coordinate the target was found at.
+   * @param y The y-coordinate the target was found at.
+   * @return The guess factor, between -1 and 1 unless the target outran the maximum escape angle.
+   */
+  public static double getGuessFactor(Wave wave, double x, double y) {
+    double angle = RobotUtilities.getAbsoluteBearing(wave.getOriginX(), wave.getOriginY(), x, y);
+    double offset = Utils.normalRelativeAngle(angle - wave.getDirectAngle());
+    return offset * wave.getLateralDirection() / getMaxEscapeAngle(wave.getBulletSpeed());
+  }
+
+  /**
+   * Returns the widest angle an enemy can move away from where it was while a bullet is in flight.
+   *
+   * @param bulletSpeed The speed of the bullet.
+   * @return The maximum escape angle in radians.
+   */
+  public static double getMaxEscapeAngle(double bulletSpeed) {
+    return Math.asin(Rules.MAX_VELOCITY / bulletSpeed);
+  }
+
+  /**
+   * Returns the statistics segment for an enemy's distance and lateral velocity.
+   *
+   * @param enemy The enemy being aimed at.
+   * @param directAngle The absolute angle from this robot to the enemy.
+   * @return The segment index between 0 and <i>SEGMENTS</i> - 1.
+   */
+  private static int getSegment(EnemyModel enemy, double directAngle) {
+    int distanceSegment = Math.min(DISTANCE_SEGMENTS - 1,
+        (int) (enemy.getDistance() / DISTANCE_SEGMENT_WIDTH));
+
+    double lateralVelocity = Math.abs(getLateralVelocity(enemy, directAngle));
+    int velocitySegment = 0;
+    while (velocitySegment < LATERAL_VELOCITY_BOUNDS.length
+        && lateralVelocity >= LATERAL_VELOCITY_BOUNDS[velocitySegment]) {
+      velocitySegment++;
+    }
+    return distanceSegment * LATERAL_VELOCITY_SEGMENTS + velocitySegment;
+  }
+
+  /**
+   * Returns how fast an enemy is moving sideways relative to this robot.
+   *
+   * @param enemy The enemy being aimed at.
+   * @param directAngle The absolute angle from this robot to the enemy.
+   * @return The lateral velocity, positive when moving clockwise around this robot.
+   */
+  private static double getLateralVelocity(EnemyModel enemy, double directAngle) {
+    return enemy.getVelocity() * RobotUtilities.sin(enemy.getHeading() - directAngle);
+  }
+
+  /**
+   * Returns which way an enemy is moving around this robot.
+   *
+   * @param enemy The enemy being aimed at.
+   * @param directAngle The absolute angle from this robot to the enemy.
+   * @return 1 for clockwise and -1 for counterclockwise.
+   */
+  private int getLateralDirection(EnemyModel enemy, double directAngle) {
+    double lateralVelocity = getLateralVelocity(enemy, directAngle);
+    Integer last = this.lateralDirections.get(enemy.getName());
+    if (lateralVelocity == 0) {
+      return last == null ? 1 : last;
+    }
+
+    int direction = lateralVelocity > 0 ? 1 : -1;
+    if (last == null || last != direction) {
+      this.lateralDirections.put(enemy.getName(), direction);
+    }
+    return direction;
+  }
+
+  /**
+   * Adds a visit at a guess factor to one segment, spreading it over the neighbouring bins.
+   *
+   * @param stats The statistics of the enemy.
+   * @param segment The segment the visit belongs to.
+   * @param guessFactor The guess factor the enemy was found at.
+   * @param weight How much the visit counts.
+   */
+  private void addGuessFactor(double[] stats, int segment, double guessFactor, double weight) {
+    double clamped = Math.max(-1.0, Math.min(1.0, guessFactor));
+    int hitBin = (int) Math.round(clamped * MIDDLE_BIN) + MIDDLE_BIN;
+    int base = segment * BINS;
+    for (int bin = 0; bin < BINS; bin++) {
+      double offset = bin - hitBin;
+      stats[base + bin] += weight / (1.0 + offset * offset);
+    }
+  }
+}
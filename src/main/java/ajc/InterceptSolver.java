@@ -0,0 +1,257 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ajc;
+
+import robocode.Rules;
+
+/**
+ * Finds where to aim so a bullet meets a target that keeps moving the way it is now.
+ *
+ * The target is assumed to keep a constant velocity and a constant turn rate, which gives linear
+ * targeting when the turn rate is 0 and circular targeting otherwise. The target is moved forward
+ * one tick at a time until the bullet has had time to travel to the target's projected position.
+ * A target that would leave the battlefield is stopped at the wall.
+ *
+ * The solution is kept in primitive fields, so solving never allocates and one solver can be
+ * reused for every scan of every enemy.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class InterceptSolver {
+  /**
+   * The longest flight time considered, enough for the slowest bullet to cross a large
+   * battlefield.
+   */
+  private static final int MAX_TICKS = 200;
+
+  /**
+   * Distance from the center of a robot to its edge, the closest a robot can get to a wall.
+   */
+  private static final double HALF_ROBOT_SIZE = 18.0;
+
+  /**
+   * The x-coordinate of the projected point of impact.
+   */
+  private double interceptX;
+
+  /**
+   * The y-coordinate of the projected point of impact.
+   */
+  private double interceptY;
+
+  /**
+   * The number of ticks the bullet takes to reach the point of impact.
+   */
+  private int flightTicks;
+
+  /**
+   * Solves for a target moving in a straight line at constant velocity.
+   *
+   * @param shooterX The x-coordinate the bullet is fired from.
+   * @param shooterY The y-coordinate the bullet is fired from.
+   * @param bulletPower The power of the bullet.
+   * @param target The target being aimed at.
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   * @return The absolute angle to aim at in radians.
+   */
+  public double solveLinear(double shooterX, double shooterY, double bulletPower,
+      EnemyModel target, double fieldWidth, double fieldHeight) {
+    return this.solve(shooterX, shooterY, bulletPower, target.getX(), target.getY(),
+        target.getHeading(), target.getVelocity(), 0.0, fieldWidth, fieldHeight);
+  }
+
+  /**
+   * Solves for a target moving in a straight line when the bullet is fired on a later tick.
+   *
+   * @param shooterX The x-coordinate the bullet will be fired from.
+   * @param shooterY The y-coordinate the bullet will be fired from.
+   * @param bulletPower The power of the bullet.
+   * @param target The target being aimed at.
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   * @param fireTime The tick the bullet will be fired on.
+   * @return The absolute angle to aim at in radians.
+   */
+  public double solveLinear(double shooterX, double shooterY, double bulletPower,
+      EnemyModel target, double fieldWidth, double fieldHeight, long fireTime) {
+    return this.solve(shooterX, shooterY, bulletPower, target.getX(), target.getY(),
+        target.getHeading(), target.getVelocity(), 0.0, fieldWidth, fieldHeight,
+        getLeadTicks(target, fireTime));
+  }
+
+  /**
+   * Solves for a target moving along a circle at constant velocity and turn rate.
+   *
+   * @param shooterX The x-coordinate the bullet is fired from.
+   * @param shooterY The y-coordinate the bullet is fired from.
+   * @param bulletPower The power of the bullet.
+   * @param target The target being aimed at.
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   * @return The absolute angle to aim at in radians.
+   */
+  public double solveCircular(double shooterX, double shooterY, double bulletPower,
+      EnemyModel target, double fieldWidth, double fieldHeight) {
+    return this.solve(shooterX, shooterY, bulletPower, target.getX(), target.getY(),
+        target.getHeading(), target.getVelocity(), target.getTurnRate(), fieldWidth,
+        fieldHeight);
+  }
+
+  /**
+   * Solves for a target moving along a circle when the bullet is fired on a later tick, such as the
+   * tick the gun will be cool.
+   *
+   * The target is first projected from its last scan to the firing tick, so the gun can be turned
+   * to the returned angle ahead of time.
+   *
+   * @param shooterX The x-coordinate the bullet will be fired from.
+   * @param shooterY The y-coordinate the bullet will be fired from.
+   * @param bulletPower The power of the bullet.
+   * @param target The target being aimed at.
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   * @param fireTime The tick the bullet will be fired on.
+   * @return The absolute angle to aim at in radians.
+   */
+  public double solveCircular(double shooterX, double shooterY, double bulletPower,
+      EnemyModel target, double fieldWidth, double fieldHeight, long fireTime) {
+    return this.solve(shooterX, shooterY, bulletPower, target.getX(), target.getY(),
+        target.getHeading(), target.getVelocity(), target.getTurnRate(), fieldWidth,
+        fieldHeight, getLeadTicks(target, fireTime));
+  }
+
+  /**
+   * Returns how many ticks a target moves between its last scan and a bullet being fired.
+   *
+   * @param target The target being aimed at.
+   * @param fireTime The tick the bullet will be fired on.
+   * @return The number of ticks, between 0 and <i>MAX_TICKS</i>.
+   */
+  private static int getLeadTicks(EnemyModel target, long fireTime) {
+    return (int) Math.max(0L, Math.min(MAX_TICKS, fireTime - target.getScanTime()));
+  }
+
+  /**
+   * Projects the target forward until a bullet fired now would reach it.
+   *
+   * @param shooterX The x-coordinate the bullet is fired from.
+   * @param shooterY The y-coordinate the bullet is fired from.
+   * @param bulletPower The power of the bullet.
+   * @param targetX The current x-coordinate of the target.
+   * @param targetY The current y-coordinate of the target.
+   * @param heading The current heading of the target in radians.
+   * @param velocity The velocity of the target.
+   * @param turnRate The turn rate of the target in radians per tick.
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   * @return The absolute angle to aim at in radians.
+   */
+  public double solve(double shooterX, double shooterY, double bulletPower, double targetX,
+      double targetY, double heading, double velocity, double turnRate, double fieldWidth,
+      double fieldHeight) {
+    return this.solve(shooterX, shooterY, bulletPower, targetX, targetY, heading, velocity,
+        turnRate, fieldWidth, fieldHeight, 0);
+  }
+
+  /**
+   * Projects the target forward until a bullet fired after a delay would reach it.
+   *
+   * @param shooterX The x-coordinate the bullet is fired from.
+   * @param shooterY The y-coordinate the bullet is fired from.
+   * @param bulletPower The power of the bullet.
+   * @param targetX The current x-coordinate of the target.
+   * @param targetY The current y-coordinate of the target.
+   * @param heading The current heading of the target in radians.
+   * @param velocity The velocity of the target.
+   * @param turnRate The turn rate of the target in radians per tick.
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   * @param leadTicks The number of ticks the target moves before the bullet is fired.
+   * @return The absolute angle to aim at in radians.
+   */
+  private double solve(double shooterX, double shooterY, double bulletPower, double targetX,
+      double targetY, double heading, double velocity, double turnRate, double fieldWidth,
+      double fieldHeight, int leadTicks) {
+    double bulletSpeed = Rules.getBulletSpeed(bulletPower);
+    double minX = HALF_ROBOT_SIZE;
+    double minY = HALF_ROBOT_SIZE;
+    double maxX = fieldWidth - HALF_ROBOT_SIZE;
+    double maxY = fieldHeight - HALF_ROBOT_SIZE;
+    double x = targetX;
+    double y = targetY;
+    double projectedHeading = heading;
+    double moving = velocity;
+
+    int tick = 0;
+    while (++tick <= MAX_TICKS + leadTicks) {
+      projectedHeading += turnRate;
+      x += RobotUtilities.sin(projectedHeading) * moving;
+      y += RobotUtilities.cos(projectedHeading) * moving;
+
+      // A robot that reaches a wall stops there
+      if (x < minX || x > maxX || y < minY || y > maxY) {
+        x = Math.max(minX, Math.min(maxX, x));
+        y = Math.max(minY, Math.min(maxY, y));
+        moving = 0.0;
+      }
+
+      // The bullet only starts moving once it has been fired
+      if (tick <= leadTicks) {
+        continue;
+      }
+      double dx = x - shooterX;
+      double dy = y - shooterY;
+      if ((tick - leadTicks) * bulletSpeed >= Math.sqrt(dx * dx + dy * dy)) {
+        break;
+      }
+    }
+
+    this.interceptX = x;
+    this.interceptY = y;
+    this.flightTicks = Math.min(tick - leadTicks, MAX_TICKS);
+    return RobotUtilities.getAbsoluteBearing(shooterX, shooterY, x, y);
+  }
+
+  /**
+   * Returns the x-coordinate of the most recently solved point of impact.
+   *
+   * @return The x-coordinate.
+   */
+  public double getInterceptX() {
+    return this.interceptX;
+  }
+
+  /**
+   * Returns the y-coordinate of the most recently solved point of impact.
+   *
+   * @return The y-coordinate.
+   */
+  public double getInterceptY() {
+    return this.interceptY;
+  }
+
+  /**
+   * Returns how long the bullet of the most recent solution is in flight.
+   *
+   * @return The flight time in ticks.
+   */
+  public int getFlightTicks() {
+    return this.flightTicks;
+  }
+}
@@ -0,0 +1,315 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Chooses where to move in melee by scoring a batch of candidate destinations.
+ *
+ * Every tick a batch of candidate points around this robot is generated, along with the current
+ * destination so the robot doesn't change its mind without reason. Each candidate's risk grows
+ * with the energy of every known enemy divided by its squared distance, weighted more heavily when
+ * the candidate lies in the same direction as the enemy, and with nearness to the places we were
+ * recently hit and to where we are now. The candidate with the lowest risk becomes the destination.
+ *
+ * Candidates, enemies and hit locations are stored in flat primitive arrays so scoring dozens of
+ * candidates against many enemies allocates nothing and stays well inside the turn budget.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class MinimumRiskMovement {
+  /**
+   * The number of candidates generated every tick, not counting the current destination.
+   */
+  public static final int CANDIDATES = 32;
+
+  /**
+   * The number of recent hit locations remembered.
+   */
+  private static final int HIT_CAPACITY = 16;
+
+  /**
+   * The closest a candidate is placed to this robot.
+   */
+  private static final double MIN_CANDIDATE_DISTANCE = 100.0;
+
+  /**
+   * How much further than <i>MIN_CANDIDATE_DISTANCE</i> a candidate may be placed.
+   */
+  private static final double CANDIDATE_DISTANCE_RANGE = 100.0;
+
+  /**
+   * Room beyond the wall sensor's distance for the robot to stop or turn after reaching a
+   * destination.
+   */
+  private static final double STOPPING_MARGIN = 40.0;
+
+  /**
+   * How far candidates are kept from the walls, far enough that driving to one doesn't carry the
+   * robot into the wall sensor's range and make it stop tracking enemies.
+   */
+  static final double WALL_MARGIN =
+      WallProximityEvent.DEFAULT_MIN_SAFE_DISTANCE + STOPPING_MARGIN;
+
+  /**
+   * The risk of a recent hit location compared to an enemy with this much energy.
+   */
+  private static final double HIT_RISK = 20.0;
+
+  /**
+   * The risk of staying where we are compared to an enemy with this much energy.
+   */
+  private static final double STAY_RISK = 10.0;
+
+  /**
+   * Provides the random directions and distances of candidates.
+   */
+  private final Random random;
+
+  /**
+   * X-coordinates of the candidates, with the current destination last.
+   */
+  private final double[] candidateX = new double[CANDIDATES + 1];
+
+  /**
+   * Y-coordinates of the candidates, parallel to <i>candidateX</i>.
+   */
+  private final double[] candidateY = new double[CANDIDATES + 1];
+
+  /**
+   * X-coordinates of the enemies added this tick.
+   */
+  private double[] enemyX = new double[8];
+
+  /**
+   * Y-coordinates of the enemies added this tick.
+   */
+  private double[] enemyY = new double[8];
+
+  /**
+   * Energies of the enemies added this tick.
+   */
+  private double[] enemyEnergy = new double[8];
+
+  /**
+   * The number of enemies added this tick.
+   */
+  private int enemyCount = 0;
+
+  /**
+   * X-coordinates of the places we were recently hit, used as a ring buffer.
+   */
+  private final double[] hitX = new double[HIT_CAPACITY];
+
+  /**
+   * Y-coordinates of the places we were recently hit, parallel to <i>hitX</i>.
+   */
+  private final double[] hitY = new double[HIT_CAPACITY];
+
+  /**
+   * The number of recorded hit locations, at most <i>HIT_CAPACITY</i>.
+   */
+  private int hitCount = 0;
+
+  /**
+   * Index in <i>hitX</i> that the next hit location will be written to.
+   */
+  private int hitHead = 0;
+
+  /**
+   * Whether a destination has been chosen this round.
+   */
+  private boolean hasDestination = false;
+
+  /**
+   * The x-coordinate of the chosen destination.
+   */
+  private double destinationX;
+
+  /**
+   * The y-coordinate of the chosen destination.
+   */
+  private double destinationY;
+
+  /**
+   * Creates the movement.
+   *
+   * @param random Provides the random directions and distances of candidates.
+   */
+  public MinimumRiskMovement(Random random) {
+    this.random = random;
+  }
+
+  /**
+   * Forgets the enemies added for the previous tick.
+   */
+  public void clearEnemies() {
+    this.enemyCount = 0;
+  }
+
+  /**
+   * Adds an enemy that candidates are scored against this tick.
+   *
+   * @param x The x-coordinate of the enemy.
+   * @param y The y-coordinate of the enemy.
+   * @param energy The energy of the enemy.
+   */
+  public void addEnemy(double x, double y, double energy) {
+    if (this.enemyCount == this.enemyX.length) {
+      this.enemyX = Arrays.copyOf(this.enemyX, this.enemyCount * 2);
+      this.enemyY = Arrays.copyOf(this.enemyY, this.enemyCount * 2);
+      this.enemyEnergy = Arrays.copyOf(this.enemyEnergy, this.enemyCount * 2);
+    }
+    this.enemyX[this.enemyCount] = x;
+    this.enemyY[this.enemyCount] = y;
+    this.enemyEnergy[this.enemyCount] = energy;
+    this.enemyCount++;
+  }
+
+  /**
+   * Records a place where an enemy bullet hit us, overwriting the oldest one if full.
+   *
+   * @param x The x-coordinate we were hit at.
+   * @param y The y-coordinate we were hit at.
+   */
+  public void recordHit(double x, double y) {
+    this.hitX[this.hitHead] = x;
+    this.hitY[this.hitHead] = y;
+    this.hitHead = (this.hitHead + 1) % HIT_CAPACITY;
+    if (this.hitCount < HIT_CAPACITY) {
+      this.hitCount++;
+    }
+  }
+
+  /**
+   * Forgets the destination and hit locations at the start of a new round.
+   */
+  public void resetRound() {
+    this.enemyCount = 0;
+    this.hitCount = 0;
+    this.hitHead = 0;
+    this.hasDestination = false;
+  }
+
+  /**
+   * Generates a batch of candidates and makes the one with the lowest risk the destination.
+   *
+   * @param x The x-coordinate of this robot.
+   * @param y The y-coordinate of this robot.
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   */
+  public void choose(double x, double y, double fieldWidth, double fieldHeight) {
+    int count = CANDIDATES;
+    for (int i = 0; i < CANDIDATES; i++) {
+      double angle = this.random.nextDouble() * 2 * Math.PI;
+      double distance =
+          MIN_CANDIDATE_DISTANCE + this.random.nextDouble() * CANDIDATE_DISTANCE_RANGE;
+      this.candidateX[i] = clamp(x + RobotUtilities.sin(angle) * distance, fieldWidth);
+      this.candidateY[i] = clamp(y + RobotUtilities.cos(angle) * distance, fieldHeight);
+    }
+    if (this.hasDestination) {
+      this.candidateX[count] = this.destinationX;
+      this.candidateY[count] = this.destinationY;
+      count++;
+    }
+
+    int best = 0;
+    double bestRisk = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < count; i++) {
+      double risk = this.getRisk(x, y, this.candidateX[i], this.candidateY[i]);
+      if (risk < bestRisk) {
+        best = i;
+        bestRisk = risk;
+      }
+    }
+
+    this.destinationX = this.candidateX[best];
+    this.destinationY = this.candidateY[best];
+    this.hasDestination = true;
+  }
+
+  /**
+   * Returns the risk of moving from this robot's position to a candidate.
+   *
+   * @param x The x-coordinate of this robot.
+   * @param y The y-coordinate of this robot.
+   * @param candidateX The x-coordinate of the candidate.
+   * @param candidateY The y-coordinate of the candidate.
+   * @return The risk of the candidate, lower being safer.
+   */
+  public double getRisk(double x, double y, double candidateX, double candidateY) {
+    double moveX = candidateX - x;
+    double moveY = candidateY - y;
+    double moveLength = Math.sqrt(moveX * moveX + moveY * moveY) + 1e-9;
+
+    double risk = STAY_RISK / (moveLength * moveLength);
+    for (int e = 0; e < this.enemyCount; e++) {
+      double dx = this.enemyX[e] - candidateX;
+      double dy = this.enemyY[e] - candidateY;
+      double distanceSq = dx * dx + dy * dy + 1.0;
+
+      // Moving toward or directly away from an enemy keeps us in its line of fire
+      double toEnemyX = this.enemyX[e] - x;
+      double toEnemyY = this.enemyY[e] - y;
+      double toEnemyLength = Math.sqrt(toEnemyX * toEnemyX + toEnemyY * toEnemyY) + 1e-9;
+      double alignment =
+          Math.abs(moveX * toEnemyX + moveY * toEnemyY) / (moveLength * toEnemyLength);
+
+      risk += this.enemyEnergy[e] * (1.0 + alignment) / distanceSq;
+    }
+    for (int h = 0; h < this.hitCount; h++) {
+      double dx = this.hitX[h] - candidateX;
+      double dy = this.hitY[h] - candidateY;
+      risk += HIT_RISK / (dx * dx + dy * dy + 1.0);
+    }
+    return risk;
+  }
+
+  /**
+   * Returns the x-coordinate of the chosen destination.
+   *
+   * @return The x-coordinate.
+   */
+  public double getDestinationX() {
+    return this.destinationX;
+  }
+
+  /**
+   * Returns the y-coordinate of the chosen destination.
+   *
+   * @return The y-coordinate.
+   */
+  public double getDestinationY() {
+    return this.destinationY;
+  }
+
+  /**
+   * Keeps a coordinate at least <i>WALL_MARGIN</i> away from both walls along its axis.
+   *
+   * @param value The coordinate.
+   * @param size The size of the battlefield along the coordinate's axis.
+   * @return The clamped coordinate.
+   */
+  private static double clamp(double value, double size) {
+    return Math.max(WALL_MARGIN, Math.min(size - WALL_MARGIN, value));
+  }
+}
@@ -0,0 +1,270 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import robocode.Rules;
+import robocode.util.Utils;
+
+/**
+ * Predicts this robot's own movement one tick at a time using the same rules as Robocode.
+ *
+ * Every tick the robot first turns by at most <i>Rules.getTurnRateRadians</i> of its velocity at
+ * the start of the tick, then changes its velocity by at most <i>Rules.ACCELERATION</i> when
+ * speeding up or <i>Rules.DECELERATION</i> when slowing down, slowing early enough to stop at the
+ * end of its remaining distance, and finally moves along its new heading.
+ *
+ * The state is kept in primitive fields so a prediction allocates nothing.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class MovementSimulator {
+  /**
+   * Distance from the center of a robot to its edge.
+   */
+  public static final double HALF_ROBOT_SIZE = 18.0;
+
+  /**
+   * How far ahead wall smoothing checks that the travel direction stays inside the battlefield.
+   */
+  private static final double WALL_STICK = 120.0;
+
+  /**
+   * How much wall smoothing rotates the travel direction per attempt in radians.
+   */
+  private static final double SMOOTHING_STEP = 0.05;
+
+  /**
+   * The simulated x-coordinate.
+   */
+  private double x;
+
+  /**
+   * The simulated y-coordinate.
+   */
+  private double y;
+
+  /**
+   * The simulated body heading in radians.
+   */
+  private double heading;
+
+  /**
+   * The simulated velocity, negative when moving backwards.
+   */
+  private double velocity;
+
+  /**
+   * How much the body still has to turn clockwise in radians.
+   */
+  private double turnRemaining;
+
+  /**
+   * How far the robot still has to move, negative when moving backwards.
+   */
+  private double distanceRemaining;
+
+  /**
+   * Starts a simulation from a robot's current state and movement commands.
+   *
+   * @param x The x-coordinate of the robot.
+   * @param y The y-coordinate of the robot.
+   * @param heading The body heading of the robot in radians.
+   * @param velocity The velocity of the robot.
+   * @param turnRemaining How much the body still has to turn clockwise in radians.
+   * @param distanceRemaining How far the robot still has to move, negative when moving backwards.
+   */
+  public void set(double x, double y, double heading, double velocity, double turnRemaining,
+      double distanceRemaining) {
+    this.x = x;
+    this.y = y;
+    this.heading = heading;
+    this.velocity = velocity;
+    this.turnRemaining = turnRemaining;
+    this.distanceRemaining = distanceRemaining;
+  }
+
+  /**
+   * Advances the simulation by one tick.
+   */
+  public void step() {
+    double maxTurn = Rules.getTurnRateRadians(Math.abs(this.velocity));
+    double turn = Math.max(-maxTurn, Math.min(maxTurn, this.turnRemaining));
+    this.heading = Utils.normalAbsoluteAngle(this.heading + turn);
+    this.turnRemaining -= turn;
+
+    this.velocity = getNewVelocity(this.velocity, this.distanceRemaining);
+    this.x += RobotUtilities.sin(this.heading) * this.velocity;
+    this.y += RobotUtilities.cos(this.heading) * this.velocity;
+    this.distanceRemaining -= this.velocity;
+  }
+
+  /**
+   * Predicts whether the robot will hit a wall if it keeps following its current commands.
+   *
+   * The simulation is advanced while predicting, so it must be set again before it is reused.
+   *
+   * @param ticks The number of ticks to look ahead.
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   * @return The number of ticks until the robot hits a wall, or -1 if it does not within
+   * <i>ticks</i>.
+   */
+  public int predictWallHit(int ticks, double fieldWidth, double fieldHeight) {
+    for (int tick = 1; tick <= ticks; tick++) {
+      this.step();
+      if (!isInField(this.x, this.y, HALF_ROBOT_SIZE, fieldWidth, fieldHeight)) {
+        return tick;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the simulated x-coordinate.
+   *
+   * @return The x-coordinate.
+   */
+  public double getX() {
+    return this.x;
+  }
+
+  /**
+   * Returns the simulated y-coordinate.
+   *
+   * @return The y-coordinate.
+   */
+  public double getY() {
+    return this.y;
+  }
+
+  /**
+   * Returns the simulated body heading.
+   *
+   * @return The heading in radians.
+   */
+  public double getHeading() {
+    return this.heading;
+  }
+
+  /**
+   * Returns the simulated velocity.
+   *
+   * @return The velocity, negative when moving backwards.
+   */
+  public double getVelocity() {
+    return this.velocity;
+  }
+
+  /**
+   * Returns the travel direction closest to a desired one that does not lead into a wall.
+   *
+   * The direction is rotated away from the desired one, both clockwise and counterclockwise, until
+   * the point <i>WALL_STICK</i> pixels ahead lies at least <i>margin</i> pixels inside the
+   * battlefield, and the smaller of the two rotations wins. This makes the robot slide along walls
+   * rather than run into them.
+   *
+   * @param x The x-coordinate of the robot.
+   * @param y The y-coordinate of the robot.
+   * @param angle The desired absolute travel direction in radians.
+   * @param margin How far inside the battlefield the point ahead must lie.
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   * @return The smoothed absolute travel direction in radians.
+   */
+  public static double smooth(double x, double y, double angle, double margin, double fieldWidth,
+      double fieldHeight) {
+    for (double offset = 0; offset < Math.PI; offset += SMOOTHING_STEP) {
+      for (int orientation = -1; orientation <= 1; orientation += 2) {
+        double candidate = angle + orientation * offset;
+        if (isInField(x + RobotUtilities.sin(candidate) * WALL_STICK,
+            y + RobotUtilities.cos(candidate) * WALL_STICK, margin, fieldWidth, fieldHeight)) {
+          return Utils.normalAbsoluteAngle(candidate);
+        }
+      }
+    }
+    return Utils.normalAbsoluteAngle(angle);
+  }
+
+  /**
+   * Returns the velocity a robot has after one tick of moving toward the end of its distance.
+   *
+   * @param velocity The velocity at the start of the tick.
+   * @param distance The distance still to move, negative when moving backwards.
+   * @return The velocity at the end of the tick.
+   */
+  public static double getNewVelocity(double velocity, double distance) {
+    if (distance < 0) {
+      return -getNewVelocity(-velocity, -distance);
+    }
+    double goal = Math.min(getMaxVelocity(distance), Rules.MAX_VELOCITY);
+    if (velocity >= 0) {
+      return Math.max(velocity - Rules.DECELERATION,
+          Math.min(goal, velocity + Rules.ACCELERATION));
+    }
+    return Math.max(velocity - Rules.ACCELERATION,
+        Math.min(goal, velocity + getMaxDeceleration(-velocity)));
+  }
+
+  /**
+   * Returns the highest speed from which a robot can still stop within a distance.
+   *
+   * @param distance The distance left to move.
+   * @return The highest speed that does not overshoot the distance.
+   */
+  private static double getMaxVelocity(double distance) {
+    double decelerationTime = Math.max(1, Math.ceil(
+        (Math.sqrt((4 * 2 / Rules.DECELERATION) * distance + 1) - 1) / 2));
+    if (decelerationTime == Double.POSITIVE_INFINITY) {
+      return Rules.MAX_VELOCITY;
+    }
+    double decelerationDistance =
+        (decelerationTime / 2.0) * (decelerationTime - 1) * Rules.DECELERATION;
+    return (decelerationTime - 1) * Rules.DECELERATION
+        + (distance - decelerationDistance) / decelerationTime;
+  }
+
+  /**
+   * Returns how much a robot moving against its goal direction can change its velocity in a tick,
+   * decelerating to a stop and accelerating for the rest of the tick.
+   *
+   * @param speed The speed of the robot against its goal direction.
+   * @return The largest change in velocity.
+   */
+  private static double getMaxDeceleration(double speed) {
+    double decelerationTime = speed / Rules.DECELERATION;
+    double accelerationTime = 1 - decelerationTime;
+    return Math.min(1, decelerationTime) * Rules.DECELERATION
+        + Math.max(0, accelerationTime) * Rules.ACCELERATION;
+  }
+
+  /**
+   * Determines if a point lies at least a margin inside the battlefield.
+   *
+   * @param x The x-coordinate of the point.
+   * @param y The y-coordinate of the point.
+   * @param margin The distance the point must keep from every wall.
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   * @return <i>true</i> if the point is far enough inside and <i>false</i> otherwise.
+   */
+  private static boolean isInField(double x, double y, double margin, double fieldWidth,
+      double fieldHeight) {
+    return x >= margin && y >= margin && x <= fieldWidth - margin && y <= fieldHeight - margin;
+  }
+}
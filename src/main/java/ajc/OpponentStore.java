@@ -0,0 +1,426 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import robocode.AdvancedRobot;
+import robocode.RobocodeFileOutputStream;
+
+/**
+ * Saves what this robot has learned about each opponent to the robot's data directory so it can
+ * be reused in later battles.
+ *
+ * Every opponent has its own GZIP compressed file holding a magic number, a format version, the
+ * opponent's name and three sections of floats: the guess factor gun's bins, the guess factors at
+ * which the opponent's bullets hit us, and the powers the opponent fires at. Files with an unknown
+ * magic number or version are ignored, so the format can change without breaking old data.
+ *
+ * Profiles are loaded lazily the first time an opponent is asked for. Before a profile is written
+ * the store makes room in Robocode's data quota by deleting the least recently written profiles of
+ * other opponents, and skips the write if the quota is still too small.
+ *
+ * Starting the JVM with <i>-Dajc.transientProfiles=true</i> keeps profiles in memory only, so
+ * battles running in parallel never read or overwrite each other's files.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class OpponentStore {
+  /**
+   * Marks the start of every profile file.
+   */
+  static final int MAGIC = 0x414A4350;
+
+  /**
+   * The version of the profile format written by this class.
+   */
+  static final int VERSION = 1;
+
+  /**
+   * The extension of every profile file.
+   */
+  static final String FILE_EXTENSION = ".gz";
+
+  /**
+   * The number of bins in the movement danger histogram, one per guess factor bin of the gun.
+   */
+  public static final int DANGER_BINS = GuessFactorGun.BINS;
+
+  /**
+   * The number of bins in the fire power histogram, one per tenth of a unit of power.
+   */
+  public static final int FIRE_POWER_BINS = 30;
+
+  /**
+   * True if profiles are read from and written to the data directory.
+   */
+  static final boolean PERSISTENT = !readTransientFlag();
+
+  /**
+   * The robot whose data directory and quota are used.
+   */
+  private AdvancedRobot robot;
+
+  /**
+   * Profiles of every opponent asked for, keyed by file name so every copy of a robot shares one.
+   */
+  private final Map<String, Profile> profiles = new HashMap<>();
+
+  /**
+   * Everything that is saved about a single opponent.
+   */
+  public static final class Profile {
+    /** The name of the opponent. */
+    private final String name;
+
+    /** The guess factor gun's bins for the opponent, shared with the gun. */
+    private final double[] gunStatistics =
+        new double[GuessFactorGun.SEGMENTS * GuessFactorGun.BINS];
+
+    /** How often the opponent's bullets hit us at each guess factor. */
+    private final double[] dangers = new double[DANGER_BINS];
+
+    /** How often the opponent fired at each power. */
+    private final double[] firePowers = new double[FIRE_POWER_BINS];
+
+    /**
+     * Creates an empty profile.
+     *
+     * @param name The name of the opponent.
+     */
+    public Profile(String name) {
+      this.name = name;
+    }
+
+    /**
+     * Records that one of the opponent's bullets hit us.
+     *
+     * @param guessFactor The guess factor we were hit at, between -1 and 1.
+     */
+    public void addDanger(double guessFactor) {
+      double clamped = Math.max(-1.0, Math.min(1.0, guessFactor));
+      int middle = (DANGER_BINS - 1) / 2;
+      this.dangers[(int) Math.round(clamped * middle) + middle]++;
+    }
+
+    /**
+     * Records that the opponent fired a bullet.
+     *
+     * @param power The power of the bullet.
+     */
+    public void addFirePower(double power) {
+      int bin = (int) Math.round(power * 10.0) - 1;
+      this.firePowers[Math.max(0, Math.min(FIRE_POWER_BINS - 1, bin))]++;
+    }
+
+    /**
+     * Returns the name of the opponent.
+     *
+     * @return The opponent's name.
+     */
+    public String getName() {
+      return this.name;
+    }
+
+    /**
+     * Returns the guess factor gun's bins, to be handed to the gun.
+     *
+     * @return The flat array of <i>GuessFactorGun.SEGMENTS * GuessFactorGun.BINS</i> bins.
+     */
+    public double[] getGunStatistics() {
+      return this.gunStatistics;
+    }
+
+    /**
+     * Returns how often the opponent's bullets hit us at each guess factor.
+     *
+     * @return The <i>DANGER_BINS</i> danger bins.
+     */
+    public double[] getDangers() {
+      return this.dangers;
+    }
+
+    /**
+     * Returns how often the opponent fired at each power.
+     *
+     * @return The <i>FIRE_POWER_BINS</i> bins, where bin i counts powers of about (i + 1) / 10.
+     */
+    public double[] getFirePowers() {
+      return this.firePowers;
+    }
+  }
+
+  /**
+   * Creates a store backed by a robot's data directory.
+   *
+   * @param robot The robot whose data directory and quota are used.
+   */
+  public OpponentStore(AdvancedRobot robot) {
+    this.robot = robot;
+  }
+
+  /**
+   * Uses the data directory of a new instance of the robot, such as the one created for every
+   * round, keeping the profiles already loaded.
+   *
+   * @param robot The robot whose data directory and quota are used from now on.
+   */
+  public void attach(AdvancedRobot robot) {
+    this.robot = robot;
+  }
+
+  /**
+   * Returns the profile of an opponent, loading it from disk the first time it is asked for.
+   *
+   * Copies of the same robot, such as <i>sample.Walls (1)</i> and <i>sample.Walls (2)</i>, share
+   * one profile, just as they share one file.
+   *
+   * @param name The name of the opponent.
+   * @return The saved profile, or an empty one if nothing usable has been saved.
+   */
+  public Profile getProfile(String name) {
+    String fileName = getFileName(name);
+    Profile profile = this.profiles.get(fileName);
+    if (profile == null) {
+      profile = this.load(name);
+      this.profiles.put(fileName, profile);
+    }
+    return profile;
+  }
+
+  /**
+   * Writes the profile of every opponent asked for so far.
+   */
+  public void saveAll() {
+    if (!PERSISTENT) {
+      return;
+    }
+    for (Profile profile : this.profiles.values()) {
+      this.save(profile);
+    }
+  }
+
+  /**
+   * Reads an opponent's profile from its file.
+   *
+   * @param name The name of the opponent.
+   * @return The saved profile, or an empty one if the file is missing, unreadable or outdated.
+   */
+  private Profile load(String name) {
+    if (!PERSISTENT) {
+      return new Profile(name);
+    }
+    File file = this.robot.getDataFile(getFileName(name));
+    if (file.length() > 0) {
+      try (InputStream in = new FileInputStream(file)) {
+        Profile profile = read(in, name);
+        if (profile != null) {
+          return profile;
+        }
+      }
+      catch (IOException e) {
+        this.robot.out.println("Could not read " + file.getName() + ": " + e);
+      }
+    }
+    return new Profile(name);
+  }
+
+  /**
+   * Writes an opponent's profile to its file, first evicting other profiles if the quota is short.
+   *
+   * @param profile The profile to write.
+   */
+  private void save(Profile profile) {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try {
+      write(buffer, profile);
+    }
+    catch (IOException e) {
+      this.robot.out.println("Could not encode the profile of " + profile.getName() + ": " + e);
+      return;
+    }
+
+    File file = this.robot.getDataFile(getFileName(profile.getName()));
+    if (!this.makeRoom(buffer.size() - file.length(), file)) {
+      this.robot.out.println("Not enough data quota to save " + file.getName());
+      return;
+    }
+    try (OutputStream out = new RobocodeFileOutputStream(file)) {
+      buffer.writeTo(out);
+    }
+    catch (IOException e) {
+      this.robot.out.println("Could not write " + file.getName() + ": " + e);
+    }
+  }
+
+  /**
+   * Deletes the least recently written profiles until the quota can hold more bytes.
+   *
+   * @param bytes The number of additional bytes needed.
+   * @param keep The file being written, which is never deleted.
+   * @return <i>true</i> if the quota can now hold the bytes and <i>false</i> otherwise.
+   */
+  private boolean makeRoom(long bytes, File keep) {
+    long available = this.robot.getDataQuotaAvailable();
+    if (bytes <= available) {
+      return true;
+    }
+
+    File[] files = this.robot.getDataDirectory().listFiles();
+    if (files == null) {
+      return false;
+    }
+    Arrays.sort(files, new Comparator<File>() {
+      @Override
+      public int compare(File first, File second) {
+        return Long.compare(first.lastModified(), second.lastModified());
+      }
+    });
+    for (File file : files) {
+      if (bytes <= available) {
+        break;
+      }
+      if (file.getName().endsWith(FILE_EXTENSION) && !file.equals(keep)) {
+        long length = file.length();
+        if (file.delete()) {
+          available += length;
+        }
+      }
+    }
+    return bytes <= available;
+  }
+
+  /**
+   * Returns the name of the file an opponent's profile is saved in.
+   *
+   * The copy number Robocode appends to duplicate robots, such as <i> (2)</i>, is dropped so that
+   * every copy of a robot shares one profile, and characters that are not safe in file names are
+   * replaced.
+   *
+   * @param name The name of the opponent.
+   * @return The name of the opponent's profile file.
+   */
+  static String getFileName(String name) {
+    int copy = name.indexOf(" (");
+    String robotName = copy < 0 ? name : name.substring(0, copy);
+    return robotName.replaceAll("[^A-Za-z0-9._-]", "_") + FILE_EXTENSION;
+  }
+
+  /**
+   * Writes a profile in the compressed profile format.
+   *
+   * @param out The stream to write to, which is closed afterwards.
+   * @param profile The profile to write.
+   * @throws IOException If the stream cannot be written.
+   */
+  static void write(OutputStream out, Profile profile) throws IOException {
+    try (DataOutputStream data = new DataOutputStream(new GZIPOutputStream(out))) {
+      data.writeInt(MAGIC);
+      data.writeByte(VERSION);
+      data.writeUTF(profile.getName());
+      writeSection(data, profile.gunStatistics);
+      writeSection(data, profile.dangers);
+      writeSection(data, profile.firePowers);
+    }
+  }
+
+  /**
+   * Reads a profile written by <i>write</i>.
+   *
+   * @param in The stream to read from.
+   * @param name The name of the opponent the profile should belong to.
+   * @return The profile, or null if the stream holds another format, version or opponent.
+   * @throws IOException If the stream cannot be read or is truncated.
+   */
+  static Profile read(InputStream in, String name) throws IOException {
+    DataInputStream data = new DataInputStream(new GZIPInputStream(in));
+    if (data.readInt() != MAGIC || data.readUnsignedByte() != VERSION) {
+      return null;
+    }
+    String savedName = data.readUTF();
+    if (!getFileName(savedName).equals(getFileName(name))) {
+      return null;
+    }
+
+    Profile profile = new Profile(name);
+    if (!readSection(data, profile.gunStatistics) || !readSection(data, profile.dangers)
+        || !readSection(data, profile.firePowers)) {
+      return null;
+    }
+    return profile;
+  }
+
+  /**
+   * Writes an array as its length followed by each value as a float.
+   *
+   * @param data The stream to write to.
+   * @param values The values to write.
+   * @throws IOException If the stream cannot be written.
+   */
+  private static void writeSection(DataOutputStream data, double[] values) throws IOException {
+    data.writeShort(values.length);
+    for (double value : values) {
+      data.writeFloat((float) value);
+    }
+  }
+
+  /**
+   * Reads an array written by <i>writeSection</i>.
+   *
+   * @param data The stream to read from.
+   * @param values The array to fill, whose length must match the saved length.
+   * @return <i>true</i> if the section was read and <i>false</i> if its length did not match.
+   * @throws IOException If the stream cannot be read or is truncated.
+   */
+  private static boolean readSection(DataInputStream data, double[] values) throws IOException {
+    if (data.readUnsignedShort() != values.length) {
+      return false;
+    }
+    for (int i = 0; i < values.length; i++) {
+      values[i] = data.readFloat();
+    }
+    return true;
+  }
+
+  /**
+   * Reads whether profiles were asked to be kept in memory only.
+   *
+   * @return <i>true</i> if the <i>ajc.transientProfiles</i> property is set and readable.
+   */
+  private static boolean readTransientFlag() {
+    try {
+      return Boolean.getBoolean("ajc.transientProfiles");
+    }
+    catch (SecurityException e) {
+      return false;
+    }
+  }
+}
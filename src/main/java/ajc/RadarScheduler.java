@@ -0,0 +1,111 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import java.util.Map;
+import robocode.util.Utils;
+
+/**
+ * Decides which way to turn the radar every tick so that enemies are scanned as often as possible.
+ *
+ * Until every enemy has been scanned this round the radar spins. Against a single enemy, or a
+ * focused enemy such as the gun's target, that was just scanned, the radar locks onto it and turns
+ * past it by <i>LOCK_OVERSHOOT</i> times the angle so the enemy stays inside the scan arc even as
+ * it moves. With several enemies, the radar sweeps toward the enemy whose last scan is the oldest,
+ * past it by <i>SWEEP_OVERSHOOT</i>, so no enemy goes long without a scan.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class RadarScheduler {
+  /**
+   * How far past a locked enemy the radar turns, as a multiple of the angle to the enemy.
+   */
+  private static final double LOCK_OVERSHOOT = 2.0;
+
+  /**
+   * How far past the oldest scanned enemy the radar sweeps in radians.
+   */
+  private static final double SWEEP_OVERSHOOT = Math.PI / 8;
+
+  /**
+   * A lock is kept only while the locked enemy was scanned within this many ticks.
+   */
+  private static final long LOCK_TICKS = 2;
+
+  /**
+   * The direction the radar last turned, 1 for clockwise and -1 for counterclockwise.
+   */
+  private int direction = 1;
+
+  /**
+   * Returns how far to turn the radar this tick.
+   *
+   * @param x The x-coordinate of this robot.
+   * @param y The y-coordinate of this robot.
+   * @param radarHeading The heading of the radar in radians.
+   * @param others The number of enemies still alive.
+   * @param enemies The models of every enemy, where those not scanned this round have a scan time
+   * of -1.
+   * @param focus The enemy to lock onto even when others are alive, or null to sweep.
+   * @param time The current time.
+   * @return The angle to turn the radar clockwise in radians, negative for counterclockwise.
+   */
+  public double getTurn(double x, double y, double radarHeading, int others,
+      Map<String, EnemyModel> enemies, EnemyModel focus, long time) {
+    EnemyModel oldest = null;
+    int known = 0;
+    for (EnemyModel enemy : enemies.values()) {
+      if (enemy.getScanTime() < 0) {
+        continue;
+      }
+      known++;
+      if (oldest == null || enemy.getScanTime() < oldest.getScanTime()) {
+        oldest = enemy;
+      }
+    }
+
+    // Spin until every enemy has been found
+    if (oldest == null || known < others) {
+      return this.direction * Math.PI;
+    }
+
+    EnemyModel lock = others == 1 ? oldest : focus;
+    if (lock != null && lock.getScanTime() >= 0 && time - lock.getScanTime() <= LOCK_TICKS) {
+      double angle = this.getAngle(x, y, radarHeading, lock);
+      return angle * LOCK_OVERSHOOT;
+    }
+    return this.getAngle(x, y, radarHeading, oldest) + this.direction * SWEEP_OVERSHOOT;
+  }
+
+  /**
+   * Returns the angle from the radar to an enemy, remembering which way it lies.
+   *
+   * @param x The x-coordinate of this robot.
+   * @param y The y-coordinate of this robot.
+   * @param radarHeading The heading of the radar in radians.
+   * @param enemy The enemy to turn toward.
+   * @return The angle to turn the radar clockwise in radians, between -PI and PI.
+   */
+  private double getAngle(double x, double y, double radarHeading, EnemyModel enemy) {
+    double angle = Utils.normalRelativeAngle(
+        RobotUtilities.getAbsoluteBearing(x, y, enemy.getX(), enemy.getY()) - radarHeading);
+    this.direction = angle < 0 ? -1 : 1;
+    return angle;
+  }
+}
@@ -18,7 +18,6 @@
 package ajc; 
 
 import robocode.AdvancedRobot;
-import robocode.Rules;
 import java.awt.Color;
 
 /**
@@ -73,30 +72,133 @@ public class RobotUtilities {
     robot.setColors(bodyColor, gunColor, radarColor);
   }
 
+  // ------------------------ Trigonometry ---------------------------------------------------------
+  /**
+   * The number of intervals the sine table divides a full circle into.
+   */
+  private static final int SIN_TABLE_SIZE = 4096;
+
+  /**
+   * Converts radians to a position in the sine table.
+   */
+  private static final double SIN_TABLE_SCALE = SIN_TABLE_SIZE / (2.0 * Math.PI);
+
   /**
-   * Calculates the power for firing proportional to the distance of the opponent.
+   * Sines of <i>SIN_TABLE_SIZE + 1</i> evenly spaced angles from 0 to 2 PI inclusive.
+   */
+  private static final double[] SIN_TABLE = new double[SIN_TABLE_SIZE + 1];
+
+  /**
+   * The number of intervals the arctangent table divides [0, 1] into.
+   */
+  private static final int ATAN_TABLE_SIZE = 2048;
+
+  /**
+   * Arctangents of <i>ATAN_TABLE_SIZE + 1</i> evenly spaced ratios from 0 to 1 inclusive.
+   */
+  private static final double[] ATAN_TABLE = new double[ATAN_TABLE_SIZE + 1];
+
+  /**
+   * The largest error of <i>sin</i>, <i>cos</i> and <i>atan2</i> compared to java.lang.Math.
+   */
+  public static final double TRIG_TABLE_MAX_ERROR = 1e-6;
+
+  // The tables are static so they are built once when the class is loaded, not every round.
+  static {
+    for (int i = 0; i <= SIN_TABLE_SIZE; i++) {
+      SIN_TABLE[i] = Math.sin(i / SIN_TABLE_SCALE);
+    }
+    for (int i = 0; i <= ATAN_TABLE_SIZE; i++) {
+      ATAN_TABLE[i] = Math.atan(i / (double) ATAN_TABLE_SIZE);
+    }
+  }
+
+  /**
+   * Returns the sine of an angle using a lookup table with linear interpolation.
    * 
-   * The max distance is is calculated as max(height, width). 
-   * The firing power is then linear from [0 to width of robot] pixels away being full power to the
-   * max distance away being the lowest power.
-   *  
-   * @param distance The distance of the object from the tank.
-   * @return The linear proportional power based on the enemy's distance.
-   */
-  public double getProportionalFirePower(double distance) {
-    // If we are up against a robot, fire at full power
-    if (distance <= robot.getWidth()) {
-      return Rules.MAX_BULLET_POWER;
+   * @param radians The angle in radians.
+   * @return The sine of the angle, within <i>TRIG_TABLE_MAX_ERROR</i> of Math.sin.
+   */
+  public static double sin(double radians) {
+    double index = (radians * SIN_TABLE_SCALE) % SIN_TABLE_SIZE;
+    if (index < 0) {
+      index += SIN_TABLE_SIZE;
+      // A tiny negative index rounds up to exactly SIN_TABLE_SIZE, one past the last interval
+      if (index >= SIN_TABLE_SIZE) {
+        index -= SIN_TABLE_SIZE;
+      }
     }
-  
-    double maxDistance = Math.max(robot.getBattleFieldWidth(), robot.getBattleFieldHeight());
-    double deltaY = Rules.MAX_BULLET_POWER - Rules.MIN_BULLET_POWER;
-    double deltaX = 0 - maxDistance;
-    double slope = deltaY / deltaX;
-    return Rules.MAX_BULLET_POWER - Math.abs(slope * distance);
+    int lower = (int) index;
+    return SIN_TABLE[lower] + (SIN_TABLE[lower + 1] - SIN_TABLE[lower]) * (index - lower);
+  }
+
+  /**
+   * Returns the cosine of an angle using a lookup table with linear interpolation.
+   * 
+   * @param radians The angle in radians.
+   * @return The cosine of the angle, within <i>TRIG_TABLE_MAX_ERROR</i> of Math.cos.
+   */
+  public static double cos(double radians) {
+    return sin(radians + Math.PI / 2);
+  }
+
+  /**
+   * Returns the angle of the point (x, y) using a lookup table with linear interpolation.
+   * 
+   * Like Math.atan2, pass <i>dx, dy</i> to get a Robocode heading, which is measured clockwise
+   * from north.
+   * 
+   * @param y The y-coordinate of the point.
+   * @param x The x-coordinate of the point.
+   * @return The angle between -PI and PI, within <i>TRIG_TABLE_MAX_ERROR</i> of Math.atan2.
+   */
+  public static double atan2(double y, double x) {
+    double absX = Math.abs(x);
+    double absY = Math.abs(y);
+    if (absX == 0 && absY == 0) {
+      return 0.0;
+    }
+
+    // Reduce to the first octant, where the ratio is in [0, 1]
+    double angle;
+    if (absX >= absY) {
+      angle = atanOfRatio(absY / absX);
+    }
+    else {
+      angle = Math.PI / 2 - atanOfRatio(absX / absY);
+    }
+
+    if (x < 0) {
+      angle = Math.PI - angle;
+    }
+    return y < 0 ? -angle : angle;
+  }
+
+  /**
+   * Returns the absolute bearing from one point to another.
+   * 
+   * @param fromX The x-coordinate of the starting point.
+   * @param fromY The y-coordinate of the starting point.
+   * @param toX The x-coordinate of the point being faced.
+   * @param toY The y-coordinate of the point being faced.
+   * @return The bearing in radians measured clockwise from north, between -PI and PI.
+   */
+  public static double getAbsoluteBearing(double fromX, double fromY, double toX, double toY) {
+    return atan2(toX - fromX, toY - fromY);
+  }
+
+  /**
+   * Looks up the arctangent of a ratio between 0 and 1.
+   * 
+   * @param ratio The ratio, between 0 and 1 inclusive.
+   * @return The arctangent of the ratio in radians.
+   */
+  private static double atanOfRatio(double ratio) {
+    double index = ratio * ATAN_TABLE_SIZE;
+    int lower = Math.min((int) index, ATAN_TABLE_SIZE - 1);
+    return ATAN_TABLE[lower] + (ATAN_TABLE[lower + 1] - ATAN_TABLE[lower]) * (index - lower);
   }
 
-  // ------------------------ Trigonometry ---------------------------------------------------------
   /**
    * Returns the opposite angle to the angle passed in between [0 - 360) degrees.
    * 
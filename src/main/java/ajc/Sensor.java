@@ -0,0 +1,44 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+/**
+ * Something the sensor stage checks every tick against a snapshot of this robot's state.
+ *
+ * Sensors dispatch themselves like any other DispatchingCondition, whether they are evaluated by
+ * the SensorStage or registered on their own.
+ *
+ * @author Anthony Christe
+ *
+ */
+public interface Sensor extends DispatchingCondition {
+  /**
+   * Determines whether this sensor has something to report this tick.
+   *
+   * @param snapshot The state of the robot at the start of the tick.
+   * @return <i>true</i> if the sensor fired and <i>false</i> otherwise.
+   */
+  boolean sense(SensorSnapshot snapshot);
+
+  /**
+   * Returns the profiler section that the time spent sensing is recorded under.
+   *
+   * @return The section of this sensor.
+   */
+  TurnProfiler.Section getSection();
+}
@@ -0,0 +1,40 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+/**
+ * Receives typed callbacks for the sensors that fired in a tick.
+ *
+ * @author Anthony Christe
+ *
+ */
+public interface SensorListener {
+  /**
+   * Called when the robot comes too close to a wall or returns to a safe distance.
+   *
+   * @param evt The sensor that fired, whose trigger tells which of the two happened.
+   */
+  void onWallProximity(WallProximityEvent evt);
+
+  /**
+   * Called when a scanned enemy fired at the robot.
+   *
+   * @param evt The sensor that fired, holding the most recent shot.
+   */
+  void onFiredUpon(FiredUponEvent evt);
+}
@@ -0,0 +1,162 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import robocode.AdvancedRobot;
+
+/**
+ * The state of this robot read once at the start of a tick, shared by every sensor.
+ *
+ * Reading the robot's state goes through its peer, so the sensor stage captures it once per tick
+ * into this snapshot instead of every sensor reading it again. The snapshot is reused every tick
+ * and never allocates.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class SensorSnapshot {
+  /**
+   * The x-coordinate of the robot.
+   */
+  private double x;
+
+  /**
+   * The y-coordinate of the robot.
+   */
+  private double y;
+
+  /**
+   * The body heading of the robot in radians.
+   */
+  private double heading;
+
+  /**
+   * The velocity of the robot.
+   */
+  private double velocity;
+
+  /**
+   * The width of the battlefield.
+   */
+  private double fieldWidth;
+
+  /**
+   * The height of the battlefield.
+   */
+  private double fieldHeight;
+
+  /**
+   * The time the snapshot was taken.
+   */
+  private long time;
+
+  /**
+   * Reads the current state of a robot.
+   *
+   * @param robot The robot to read.
+   */
+  public void capture(AdvancedRobot robot) {
+    this.set(robot.getX(), robot.getY(), robot.getHeadingRadians(), robot.getVelocity(),
+        robot.getBattleFieldWidth(), robot.getBattleFieldHeight(), robot.getTime());
+  }
+
+  /**
+   * Sets the state directly, such as for a simulated robot.
+   *
+   * @param x The x-coordinate of the robot.
+   * @param y The y-coordinate of the robot.
+   * @param heading The body heading of the robot in radians.
+   * @param velocity The velocity of the robot.
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   * @param time The current time.
+   */
+  public void set(double x, double y, double heading, double velocity, double fieldWidth,
+      double fieldHeight, long time) {
+    this.x = x;
+    this.y = y;
+    this.heading = heading;
+    this.velocity = velocity;
+    this.fieldWidth = fieldWidth;
+    this.fieldHeight = fieldHeight;
+    this.time = time;
+  }
+
+  /**
+   * Returns the x-coordinate of the robot.
+   *
+   * @return The x-coordinate.
+   */
+  public double getX() {
+    return this.x;
+  }
+
+  /**
+   * Returns the y-coordinate of the robot.
+   *
+   * @return The y-coordinate.
+   */
+  public double getY() {
+    return this.y;
+  }
+
+  /**
+   * Returns the body heading of the robot.
+   *
+   * @return The heading in radians.
+   */
+  public double getHeading() {
+    return this.heading;
+  }
+
+  /**
+   * Returns the velocity of the robot.
+   *
+   * @return The velocity, negative when moving backwards.
+   */
+  public double getVelocity() {
+    return this.velocity;
+  }
+
+  /**
+   * Returns the width of the battlefield.
+   *
+   * @return The width in pixels.
+   */
+  public double getFieldWidth() {
+    return this.fieldWidth;
+  }
+
+  /**
+   * Returns the height of the battlefield.
+   *
+   * @return The height in pixels.
+   */
+  public double getFieldHeight() {
+    return this.fieldHeight;
+  }
+
+  /**
+   * Returns the time the snapshot was taken.
+   *
+   * @return The time.
+   */
+  public long getTime() {
+    return this.time;
+  }
+}
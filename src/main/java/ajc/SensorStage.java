@@ -0,0 +1,127 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import robocode.AdvancedRobot;
+import robocode.Condition;
+
+/**
+ * The single custom event that evaluates every sensor once per tick.
+ *
+ * When the engine tests this condition, the robot's state is captured into one snapshot and every
+ * sensor is evaluated against it. If any sensor fired the condition fires, and the robot then
+ * calls <i>dispatch</i> to hand each fired sensor to its typed callback. Sensors change state in
+ * place rather than being removed and added again, so the robot's event queue never churns.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class SensorStage extends Condition implements DispatchingCondition {
+  /**
+   * The name of this condition.
+   */
+  public static final String NAME = "SensorStage";
+
+  /**
+   * The robot whose state is captured.
+   */
+  private final AdvancedRobot robot;
+
+  /**
+   * The sensors in the order they are evaluated and dispatched.
+   */
+  private final Sensor[] sensors;
+
+  /**
+   * Which sensors fired in the last test, parallel to <i>sensors</i>.
+   */
+  private final boolean[] fired;
+
+  /**
+   * The state of the robot read at the last test.
+   */
+  private final SensorSnapshot snapshot = new SensorSnapshot();
+
+  /**
+   * Records how long evaluating the stage and each of its sensors takes, or null to not record.
+   */
+  private final TurnProfiler profiler;
+
+  /**
+   * Creates a sensor stage.
+   *
+   * @param robot The robot whose state is captured.
+   * @param profiler The profiler to record test times with.
+   * @param sensors The sensors in the order they are evaluated and dispatched.
+   */
+  public SensorStage(AdvancedRobot robot, TurnProfiler profiler, Sensor... sensors) {
+    super(NAME);
+    this.robot = robot;
+    this.profiler = profiler;
+    this.sensors = sensors;
+    this.fired = new boolean[sensors.length];
+  }
+
+  /**
+   * Captures the robot's state and evaluates every sensor against it.
+   *
+   * @return <i>true</i> if any sensor fired and <i>false</i> otherwise.
+   */
+  @Override
+  public boolean test() {
+    long startTime = TurnProfiler.start();
+    this.snapshot.capture(this.robot);
+    boolean anyFired = false;
+    for (int i = 0; i < this.sensors.length; i++) {
+      long sensorStartTime = TurnProfiler.start();
+      this.fired[i] = this.sensors[i].sense(this.snapshot);
+      anyFired |= this.fired[i];
+      if (TurnProfiler.ENABLED && this.profiler != null) {
+        this.profiler.record(this.sensors[i].getSection(), sensorStartTime);
+      }
+    }
+    if (TurnProfiler.ENABLED && this.profiler != null) {
+      this.profiler.record(TurnProfiler.Section.SENSOR_STAGE, startTime);
+    }
+    return anyFired;
+  }
+
+  /**
+   * Hands every sensor that fired in the last test to its callback.
+   *
+   * @param listener The listener to report the fired sensors to.
+   */
+  @Override
+  public void dispatch(SensorListener listener) {
+    for (int i = 0; i < this.sensors.length; i++) {
+      if (this.fired[i]) {
+        this.fired[i] = false;
+        this.sensors[i].dispatch(listener);
+      }
+    }
+  }
+
+  /**
+   * Returns the state of the robot read at the last test.
+   *
+   * @return The snapshot shared by every sensor.
+   */
+  public SensorSnapshot getSnapshot() {
+    return this.snapshot;
+  }
+}
@@ -0,0 +1,323 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Chooses which enemy the gun and radar commit to when several enemies are alive.
+ *
+ * Every enemy gets a score from how close it is, how little energy it has left, how often our
+ * bullets hit it and how much damage it has dealt us. Scores live in an indexed binary max-heap,
+ * so rescoring an enemy after a scan takes O(log n) time and the best enemy is always on top.
+ *
+ * The current target is only replaced once another enemy's score beats it by <i>HYSTERESIS</i>,
+ * which keeps the gun from thrashing between enemies with similar scores.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class TargetSelector {
+  /**
+   * Another enemy must score this many times the current target's score to replace it.
+   */
+  private static final double HYSTERESIS = 1.25;
+
+  /**
+   * The distance at which closeness adds 1 to a score.
+   */
+  private static final double REFERENCE_DISTANCE = 400.0;
+
+  /**
+   * How much an enemy with no energy left adds to its score over one with full energy.
+   */
+  private static final double ENERGY_WEIGHT = 0.5;
+
+  /**
+   * How much an enemy that has dealt a lot of damage adds to its score.
+   */
+  private static final double THREAT_WEIGHT = 0.5;
+
+  /**
+   * The damage dealt to us at which an enemy counts as half as threatening as possible.
+   */
+  private static final double HALF_THREAT_DAMAGE = 50.0;
+
+  /**
+   * The number of enemies the heap can hold before it grows.
+   */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * Names of the enemies in heap order, the best enemy first.
+   */
+  private String[] heap = new String[INITIAL_CAPACITY];
+
+  /**
+   * Scores of the enemies, in the same order as <i>heap</i>.
+   */
+  private double[] scores = new double[INITIAL_CAPACITY];
+
+  /**
+   * The number of enemies in the heap.
+   */
+  private int size = 0;
+
+  /**
+   * Position of every enemy in the heap, keyed by name.
+   */
+  private final Map<String, Integer> positions = new HashMap<>();
+
+  /**
+   * Hit and damage counts of every enemy, kept across rounds.
+   */
+  private final Map<String, Record> records = new HashMap<>();
+
+  /**
+   * The name of the enemy the gun and radar are committed to, or null if there is none.
+   */
+  private String target = null;
+
+  /**
+   * How we have fared against a single enemy.
+   */
+  private static final class Record {
+    /** The number of bullets we fired at the enemy. */
+    private int shots = 0;
+
+    /** The number of our bullets that hit the enemy. */
+    private int hits = 0;
+
+    /** The total damage the enemy's bullets have dealt us. */
+    private double damageTaken = 0.0;
+  }
+
+  /**
+   * Rescores an enemy after it was scanned and reconsiders the current target.
+   *
+   * @param enemy The enemy that was just scanned.
+   */
+  public void update(EnemyModel enemy) {
+    this.setScore(enemy.getName(), this.getScore(enemy));
+  }
+
+  /**
+   * Records that we fired a bullet at an enemy.
+   *
+   * @param name The name of the enemy.
+   */
+  public void recordShot(String name) {
+    this.getRecord(name).shots++;
+  }
+
+  /**
+   * Records that one of our bullets hit an enemy.
+   *
+   * @param name The name of the enemy.
+   */
+  public void recordHit(String name) {
+    this.getRecord(name).hits++;
+  }
+
+  /**
+   * Records that an enemy's bullet damaged us.
+   *
+   * @param name The name of the enemy.
+   * @param damage The damage we took.
+   */
+  public void recordDamageTaken(String name, double damage) {
+    this.getRecord(name).damageTaken += damage;
+  }
+
+  /**
+   * Stops considering an enemy, such as after it died.
+   *
+   * @param name The name of the enemy.
+   */
+  public void remove(String name) {
+    Integer position = this.positions.remove(name);
+    if (position == null) {
+      return;
+    }
+    int last = --this.size;
+    if (position != last) {
+      this.move(last, position);
+      this.siftDown(position);
+      this.siftUp(position);
+    }
+    this.heap[last] = null;
+
+    if (name.equals(this.target)) {
+      this.target = this.size == 0 ? null : this.heap[0];
+    }
+  }
+
+  /**
+   * Forgets every score at the start of a new round, keeping the hit and damage counts.
+   */
+  public void resetRound() {
+    Arrays.fill(this.heap, 0, this.size, null);
+    this.size = 0;
+    this.positions.clear();
+    this.target = null;
+  }
+
+  /**
+   * Returns the enemy the gun and radar should commit to.
+   *
+   * @return The name of the target, or null if no enemy has been scanned.
+   */
+  public String getTarget() {
+    return this.target;
+  }
+
+  /**
+   * Returns the current score of an enemy.
+   *
+   * @param name The name of the enemy.
+   * @return The score, or 0 if the enemy has not been scored this round.
+   */
+  public double getScore(String name) {
+    Integer position = this.positions.get(name);
+    return position == null ? 0.0 : this.scores[position];
+  }
+
+  /**
+   * Returns how attractive an enemy is as a target, higher being better.
+   *
+   * @param enemy The enemy to score.
+   * @return The enemy's score.
+   */
+  private double getScore(EnemyModel enemy) {
+    Record record = this.getRecord(enemy.getName());
+    double hitRate = (record.hits + 1.0) / (record.shots + 2.0);
+    double closeness = REFERENCE_DISTANCE / Math.max(enemy.getDistance(), 1.0);
+    double weakness = 1.0 - Math.min(enemy.getEnergy(), 100.0) / 100.0;
+    double threat = record.damageTaken / (record.damageTaken + HALF_THREAT_DAMAGE);
+    return hitRate * closeness + ENERGY_WEIGHT * weakness + THREAT_WEIGHT * threat;
+  }
+
+  /**
+   * Stores an enemy's new score in the heap and switches targets if the best enemy is clearly
+   * better than the current target.
+   *
+   * @param name The name of the enemy.
+   * @param score The enemy's new score.
+   */
+  private void setScore(String name, double score) {
+    Integer position = this.positions.get(name);
+    if (position == null) {
+      if (this.size == this.heap.length) {
+        this.heap = Arrays.copyOf(this.heap, this.size * 2);
+        this.scores = Arrays.copyOf(this.scores, this.size * 2);
+      }
+      position = this.size++;
+      this.heap[position] = name;
+      this.positions.put(name, position);
+    }
+    this.scores[position] = score;
+    this.siftDown(position);
+    this.siftUp(this.positions.get(name));
+
+    if (this.target == null
+        || this.scores[0] > this.getScore(this.target) * HYSTERESIS) {
+      this.target = this.heap[0];
+    }
+  }
+
+  /**
+   * Moves an entry up the heap until its parent scores at least as high.
+   *
+   * @param position The position of the entry.
+   */
+  private void siftUp(int position) {
+    String name = this.heap[position];
+    double score = this.scores[position];
+    while (position > 0) {
+      int parent = (position - 1) / 2;
+      if (this.scores[parent] >= score) {
+        break;
+      }
+      this.move(parent, position);
+      position = parent;
+    }
+    this.place(name, score, position);
+  }
+
+  /**
+   * Moves an entry down the heap until both of its children score at most as high.
+   *
+   * @param position The position of the entry.
+   */
+  private void siftDown(int position) {
+    String name = this.heap[position];
+    double score = this.scores[position];
+    while (2 * position + 1 < this.size) {
+      int child = 2 * position + 1;
+      if (child + 1 < this.size && this.scores[child + 1] > this.scores[child]) {
+        child++;
+      }
+      if (this.scores[child] <= score) {
+        break;
+      }
+      this.move(child, position);
+      position = child;
+    }
+    this.place(name, score, position);
+  }
+
+  /**
+   * Copies the entry at one position of the heap to another.
+   *
+   * @param from The position to copy from.
+   * @param to The position to copy to.
+   */
+  private void move(int from, int to) {
+    this.place(this.heap[from], this.scores[from], to);
+  }
+
+  /**
+   * Stores an entry at a position of the heap and remembers where it is.
+   *
+   * @param name The name of the enemy.
+   * @param score The score of the enemy.
+   * @param position The position to store the entry at.
+   */
+  private void place(String name, double score, int position) {
+    this.heap[position] = name;
+    this.scores[position] = score;
+    this.positions.put(name, position);
+  }
+
+  /**
+   * Returns the record of an enemy, creating it the first time the enemy is seen.
+   *
+   * @param name The name of the enemy.
+   * @return The record of the enemy.
+   */
+  private Record getRecord(String name) {
+    Record record = this.records.get(name);
+    if (record == null) {
+      record = new Record();
+      this.records.put(name, record);
+    }
+    return record;
+  }
+}
@@ -0,0 +1,262 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Records how long each of the robot's handlers takes per turn, along with skipped turns and
+ * ticks on which the gun was cool but did not fire.
+ *
+ * Profiling is turned on by starting the JVM with <i>-Dajc.profile=true</i>. Every recording
+ * method returns immediately when profiling is off, and since <i>ENABLED</i> is a static final
+ * field the JIT compiler removes those checks entirely.
+ *
+ * Durations are stored in histograms with power-of-two nanosecond buckets so that recording a
+ * sample never allocates.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class TurnProfiler {
+  /**
+   * True if profiling was requested when this class was loaded.
+   */
+  public static final boolean ENABLED = readEnabledFlag();
+
+  /**
+   * The number of power-of-two buckets in each histogram, enough to cover over a minute.
+   */
+  static final int BUCKETS = 40;
+
+  /**
+   * The parts of the robot whose running time is recorded.
+   */
+  public static enum Section {
+    /** One iteration of the main loop in run(). */
+    RUN_LOOP,
+
+    /** The onScannedRobot handler. */
+    SCANNED_ROBOT,
+
+    /** The onCustomEvent handler, including the handler it dispatches to. */
+    CUSTOM_EVENT,
+
+    /** The test of the WallProximityEvent condition, on its own or as a sensor of the stage. */
+    WALL_PROXIMITY_TEST,
+
+    /** The test of the FiredUponEvent condition, on its own or as a sensor of the stage. */
+    FIRED_UPON_TEST,
+
+    /** The test method of the SensorStage condition, which evaluates every sensor. */
+    SENSOR_STAGE;
+  }
+
+  /**
+   * Sample counts for every section, <i>BUCKETS</i> entries per section.
+   */
+  private final long[] histograms = new long[Section.values().length * BUCKETS];
+
+  /**
+   * Total nanoseconds recorded for each section.
+   */
+  private final long[] totals = new long[Section.values().length];
+
+  /**
+   * Number of samples recorded for each section.
+   */
+  private final long[] samples = new long[Section.values().length];
+
+  /**
+   * Longest sample recorded for each section in nanoseconds.
+   */
+  private final long[] maxima = new long[Section.values().length];
+
+  /**
+   * The number of turns skipped since the last summary.
+   */
+  private int skippedTurns = 0;
+
+  /**
+   * The number of ticks the gun was cool but did not fire since the last summary.
+   */
+  private int wastedCoolTicks = 0;
+
+  /**
+   * Returns the current time if profiling is on, to be passed to <i>record</i> later.
+   *
+   * @return The value of System.nanoTime(), or 0 if profiling is off.
+   */
+  public static long start() {
+    return ENABLED ? System.nanoTime() : 0L;
+  }
+
+  /**
+   * Records the time elapsed since <i>startTime</i> against a section.
+   *
+   * @param section The section that was timed.
+   * @param startTime The value returned by <i>start</i> when the section began.
+   */
+  public void record(Section section, long startTime) {
+    if (!ENABLED) {
+      return;
+    }
+    long elapsed = System.nanoTime() - startTime;
+    int index = section.ordinal();
+    int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(Math.max(1L, elapsed)));
+
+    this.histograms[index * BUCKETS + bucket]++;
+    this.totals[index] += elapsed;
+    this.samples[index]++;
+    if (elapsed > this.maxima[index]) {
+      this.maxima[index] = elapsed;
+    }
+  }
+
+  /**
+   * Records that the robot took too long and skipped a turn.
+   */
+  public void recordSkippedTurn() {
+    if (ENABLED) {
+      this.skippedTurns++;
+    }
+  }
+
+  /**
+   * Records that the gun was cool on a tick but no bullet was fired.
+   */
+  public void recordWastedCoolTick() {
+    if (ENABLED) {
+      this.wastedCoolTicks++;
+    }
+  }
+
+  /**
+   * Prints a summary of every section and then clears all recorded samples.
+   *
+   * For each section the number of samples, the mean, the approximate 50th and 99th percentiles
+   * and the maximum are printed in microseconds.
+   *
+   * @param out The stream to print the summary to.
+   * @param round The round the summary belongs to.
+   */
+  public void printSummary(PrintStream out, int round) {
+    if (!ENABLED) {
+      return;
+    }
+    out.println("Round " + round + " turn times (us): skipped turns = " + this.skippedTurns
+        + ", wasted cool ticks = " + this.wastedCoolTicks);
+    for (Section section : Section.values()) {
+      int index = section.ordinal();
+      if (this.samples[index] == 0) {
+        continue;
+      }
+      out.format("  %-20s n=%-7d mean=%-9.1f p50<%-9.1f p99<%-9.1f max=%.1f%n", section,
+          this.samples[index], this.totals[index] / (double) this.samples[index] / 1000.0,
+          this.getPercentile(index, 0.50) / 1000.0, this.getPercentile(index, 0.99) / 1000.0,
+          this.maxima[index] / 1000.0);
+    }
+    this.reset();
+  }
+
+  /**
+   * Returns the number of samples recorded for a section since the last summary.
+   *
+   * @param section The section.
+   * @return The number of samples.
+   */
+  long getSamples(Section section) {
+    return this.samples[section.ordinal()];
+  }
+
+  /**
+   * Returns the number of samples of a section that fell into one histogram bucket.
+   *
+   * @param section The section.
+   * @param bucket The bucket, holding durations from 2^<i>bucket</i> up to 2^(<i>bucket</i> + 1)
+   * nanoseconds.
+   * @return The number of samples in the bucket.
+   */
+  long getBucketCount(Section section, int bucket) {
+    return this.histograms[section.ordinal() * BUCKETS + bucket];
+  }
+
+  /**
+   * Returns the number of turns skipped since the last summary.
+   *
+   * @return The number of skipped turns.
+   */
+  public int getSkippedTurns() {
+    return this.skippedTurns;
+  }
+
+  /**
+   * Returns the number of ticks the gun was cool but did not fire since the last summary.
+   *
+   * @return The number of wasted cool ticks.
+   */
+  public int getWastedCoolTicks() {
+    return this.wastedCoolTicks;
+  }
+
+  /**
+   * Clears every recorded sample, the skipped turn count and the wasted cool tick count.
+   */
+  public void reset() {
+    Arrays.fill(this.histograms, 0L);
+    Arrays.fill(this.totals, 0L);
+    Arrays.fill(this.samples, 0L);
+    Arrays.fill(this.maxima, 0L);
+    this.skippedTurns = 0;
+    this.wastedCoolTicks = 0;
+  }
+
+  /**
+   * Returns the upper bound of the bucket that contains the given percentile of a section.
+   *
+   * @param index The ordinal of the section.
+   * @param percentile The percentile between 0 and 1.
+   * @return The upper bound of the percentile's bucket in nanoseconds.
+   */
+  private long getPercentile(int index, double percentile) {
+    long target = (long) Math.ceil(this.samples[index] * percentile);
+    long seen = 0;
+    for (int bucket = 0; bucket < BUCKETS; bucket++) {
+      seen += this.histograms[index * BUCKETS + bucket];
+      if (seen >= target) {
+        return 1L << (bucket + 1);
+      }
+    }
+    return this.maxima[index];
+  }
+
+  /**
+   * Reads the <i>ajc.profile</i> system property, which may be denied inside the robot sandbox.
+   *
+   * @return <i>true</i> if the property is set to true and <i>false</i> otherwise.
+   */
+  private static boolean readEnabledFlag() {
+    try {
+      return Boolean.getBoolean("ajc.profile");
+    }
+    catch (SecurityException e) {
+      return false;
+    }
+  }
+}
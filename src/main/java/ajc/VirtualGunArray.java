@@ -0,0 +1,410 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import java.util.HashMap;
+import java.util.Map;
+import robocode.Rules;
+import robocode.util.Utils;
+
+/**
+ * Runs several aiming strategies side by side and tells the real gun which one hits each enemy
+ * most often.
+ *
+ * Every time the real gun fires, each virtual gun fires a virtual bullet of the same power along
+ * its own aim. A virtual bullet is resolved once it has traveled as far as its target is from
+ * where it was fired, and it hits if it passes within the target's half width of the target's
+ * center. The outcomes are kept as a rolling hit rate for every gun and every enemy, so the array
+ * follows an enemy that changes how it moves.
+ *
+ * Virtual bullets are kept in parallel arrays allocated when the array is created, so firing never
+ * allocates, and every bullet in flight is checked in a single pass each tick. If the pool is full
+ * the oldest bullet is dropped.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class VirtualGunArray {
+  /**
+   * The number of virtual bullets in flight when no capacity is given.
+   */
+  public static final int DEFAULT_CAPACITY = 128;
+
+  /**
+   * The number of shots the rolling hit rate averages over.
+   */
+  private static final int ROLLING_DEPTH = 50;
+
+  /**
+   * Distance from the center of a robot to its edge.
+   */
+  private static final double HALF_ROBOT_SIZE = 18.0;
+
+  /**
+   * The aiming strategies run by the array.
+   */
+  public static enum Gun {
+    /** Aims straight at the target's current position. */
+    HEAD_ON,
+
+    /** Assumes the target keeps its velocity and heading. */
+    LINEAR,
+
+    /** Assumes the target keeps its velocity and turn rate. */
+    CIRCULAR,
+
+    /** Aims at the target's most visited guess factor. */
+    GUESS_FACTOR;
+  }
+
+  /**
+   * The gun used for an enemy that no virtual bullet has been resolved against.
+   */
+  public static final Gun DEFAULT_GUN = Gun.CIRCULAR;
+
+  /**
+   * Every gun, in the order of their ordinals.
+   */
+  private static final Gun[] GUNS = Gun.values();
+
+  /**
+   * The guess factor gun aimed with by <i>GUESS_FACTOR</i>.
+   */
+  private final GuessFactorGun guessFactorGun;
+
+  /**
+   * The solver aimed with by <i>LINEAR</i> and <i>CIRCULAR</i>.
+   */
+  private final InterceptSolver interceptSolver;
+
+  /**
+   * The angle each gun aimed at in the most recent call to <i>aim</i>.
+   */
+  private final double[] angles = new double[GUNS.length];
+
+  /**
+   * The name of the enemy the most recent call to <i>aim</i> aimed at.
+   */
+  private String aimedTarget;
+
+  /**
+   * The x-coordinate each bullet in flight was fired from.
+   */
+  private final double[] originXs;
+
+  /**
+   * The y-coordinate each bullet in flight was fired from.
+   */
+  private final double[] originYs;
+
+  /**
+   * The absolute heading in radians of each bullet in flight.
+   */
+  private final double[] headings;
+
+  /**
+   * The speed of each bullet in flight.
+   */
+  private final double[] speeds;
+
+  /**
+   * The tick each bullet in flight was fired on.
+   */
+  private final long[] fireTimes;
+
+  /**
+   * The ordinal of the gun that fired each bullet in flight.
+   */
+  private final int[] guns;
+
+  /**
+   * The hit rates of the enemy each bullet in flight was fired at.
+   */
+  private final Statistics[] targets;
+
+  /**
+   * The number of bullets in flight, in slots 0 to count - 1 from oldest to newest.
+   */
+  private int count = 0;
+
+  /**
+   * The hit rates of every enemy fired at, keyed by name.
+   */
+  private final Map<String, Statistics> statistics = new HashMap<>();
+
+  /**
+   * The rolling hit rate of every gun against a single enemy.
+   */
+  private static final class Statistics {
+    /** The name of the enemy. */
+    private final String name;
+
+    /** The rolling hit rate of each gun. */
+    private final double[] hitRates = new double[GUNS.length];
+
+    /** The number of virtual bullets of each gun resolved against the enemy. */
+    private final int[] shots = new int[GUNS.length];
+
+    /**
+     * Creates statistics with no shots resolved.
+     *
+     * @param name The name of the enemy.
+     */
+    private Statistics(String name) {
+      this.name = name;
+    }
+  }
+
+  /**
+   * Creates an array with room for <i>DEFAULT_CAPACITY</i> virtual bullets.
+   *
+   * @param guessFactorGun The guess factor gun to aim with.
+   * @param interceptSolver The solver to aim the linear and circular guns with.
+   */
+  public VirtualGunArray(GuessFactorGun guessFactorGun, InterceptSolver interceptSolver) {
+    this(guessFactorGun, interceptSolver, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates an array with a custom number of virtual bullets.
+   *
+   * @param guessFactorGun The guess factor gun to aim with.
+   * @param interceptSolver The solver to aim the linear and circular guns with.
+   * @param capacity The maximum number of virtual bullets in flight at once.
+   */
+  public VirtualGunArray(GuessFactorGun guessFactorGun, InterceptSolver interceptSolver,
+      int capacity) {
+    if (capacity < GUNS.length) {
+      throw new IllegalArgumentException("VirtualGunArray expects room for a bullet of every gun");
+    }
+    this.guessFactorGun = guessFactorGun;
+    this.interceptSolver = interceptSolver;
+    this.originXs = new double[capacity];
+    this.originYs = new double[capacity];
+    this.headings = new double[capacity];
+    this.speeds = new double[capacity];
+    this.fireTimes = new long[capacity];
+    this.guns = new int[capacity];
+    this.targets = new Statistics[capacity];
+  }
+
+  /**
+   * Aims every gun at an enemy for a bullet fired on a given tick.
+   *
+   * @param enemy The enemy to aim at.
+   * @param shooterX The x-coordinate the bullet will be fired from.
+   * @param shooterY The y-coordinate the bullet will be fired from.
+   * @param bulletPower The power of the bullet.
+   * @param fireTime The tick the bullet will be fired on.
+   * @param fieldWidth The width of the battlefield.
+   * @param fieldHeight The height of the battlefield.
+   */
+  public void aim(EnemyModel enemy, double shooterX, double shooterY, double bulletPower,
+      long fireTime, double fieldWidth, double fieldHeight) {
+    this.angles[Gun.HEAD_ON.ordinal()] =
+        RobotUtilities.getAbsoluteBearing(shooterX, shooterY, enemy.getX(), enemy.getY());
+    this.angles[Gun.LINEAR.ordinal()] = this.interceptSolver.solveLinear(shooterX, shooterY,
+        bulletPower, enemy, fieldWidth, fieldHeight, fireTime);
+    this.angles[Gun.CIRCULAR.ordinal()] = this.interceptSolver.solveCircular(shooterX, shooterY,
+        bulletPower, enemy, fieldWidth, fieldHeight, fireTime);
+    this.angles[Gun.GUESS_FACTOR.ordinal()] =
+        this.guessFactorGun.getAimAngle(enemy, shooterX, shooterY, bulletPower);
+    this.aimedTarget = enemy.getName();
+  }
+
+  /**
+   * Returns the angle a gun aimed at in the most recent call to <i>aim</i>.
+   *
+   * @param gun The gun.
+   * @return The absolute angle in radians.
+   */
+  public double getAngle(Gun gun) {
+    return this.angles[gun.ordinal()];
+  }
+
+  /**
+   * Fires a virtual bullet from every gun along its most recent aim.
+   *
+   * @param target The name of the enemy the real bullet was fired at, which must be the enemy
+   * most recently aimed at or nothing is fired.
+   * @param x The x-coordinate the bullet was fired from.
+   * @param y The y-coordinate the bullet was fired from.
+   * @param time The tick the bullet was fired on.
+   * @param bulletPower The power of the bullet.
+   */
+  public void fire(String target, double x, double y, long time, double bulletPower) {
+    if (target == null || !target.equals(this.aimedTarget)) {
+      return;
+    }
+    Statistics enemyStatistics = this.getStatistics(target);
+    double speed = Rules.getBulletSpeed(bulletPower);
+    for (int gun = 0; gun < GUNS.length; gun++) {
+      if (this.count == this.guns.length) {
+        this.removeOldest();
+      }
+      int slot = this.count++;
+      this.originXs[slot] = x;
+      this.originYs[slot] = y;
+      this.headings[slot] = this.angles[gun];
+      this.speeds[slot] = speed;
+      this.fireTimes[slot] = time;
+      this.guns[slot] = gun;
+      this.targets[slot] = enemyStatistics;
+    }
+  }
+
+  /**
+   * Resolves every virtual bullet that has reached its target, in a single pass over the bullets
+   * in flight.
+   *
+   * Bullets whose target's position is no longer known, such as after it died, are dropped.
+   *
+   * @param time The current tick.
+   * @param enemies The enemies fired at, keyed by name.
+   */
+  public void advance(long time, Map<String, EnemyModel> enemies) {
+    int kept = 0;
+    for (int i = 0; i < this.count; i++) {
+      EnemyModel enemy = enemies.get(this.targets[i].name);
+      boolean resolved = enemy == null || enemy.getScanTime() < 0;
+      if (!resolved) {
+        double distance =
+            Math.hypot(enemy.getX() - this.originXs[i], enemy.getY() - this.originYs[i]);
+        if (this.speeds[i] * (time - this.fireTimes[i]) >= distance) {
+          double offset = Utils.normalRelativeAngle(RobotUtilities.getAbsoluteBearing(
+              this.originXs[i], this.originYs[i], enemy.getX(), enemy.getY()) - this.headings[i]);
+          record(this.targets[i], this.guns[i],
+              Math.abs(offset) <= Math.atan(HALF_ROBOT_SIZE / Math.max(HALF_ROBOT_SIZE, distance)));
+          resolved = true;
+        }
+      }
+      if (!resolved) {
+        this.move(i, kept++);
+      }
+    }
+    for (int i = kept; i < this.count; i++) {
+      this.targets[i] = null;
+    }
+    this.count = kept;
+  }
+
+  /**
+   * Returns the gun with the highest hit rate against an enemy.
+   *
+   * @param name The name of the enemy.
+   * @return The best gun, or <i>DEFAULT_GUN</i> if it is no worse than the others.
+   */
+  public Gun getBestGun(String name) {
+    Statistics enemyStatistics = this.statistics.get(name);
+    if (enemyStatistics == null) {
+      return DEFAULT_GUN;
+    }
+    Gun best = DEFAULT_GUN;
+    for (Gun gun : GUNS) {
+      if (enemyStatistics.hitRates[gun.ordinal()] > enemyStatistics.hitRates[best.ordinal()]) {
+        best = gun;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Returns the rolling hit rate of a gun against an enemy.
+   *
+   * @param name The name of the enemy.
+   * @param gun The gun.
+   * @return The hit rate between 0 and 1, 0 if no virtual bullet has been resolved.
+   */
+  public double getHitRate(String name, Gun gun) {
+    Statistics enemyStatistics = this.statistics.get(name);
+    return enemyStatistics == null ? 0.0 : enemyStatistics.hitRates[gun.ordinal()];
+  }
+
+  /**
+   * Returns the number of virtual bullets in flight.
+   *
+   * @return The number of bullets in flight, never more than the capacity.
+   */
+  public int size() {
+    return this.count;
+  }
+
+  /**
+   * Drops every virtual bullet in flight at the start of a new round while keeping the hit rates.
+   */
+  public void resetRound() {
+    for (int i = 0; i < this.count; i++) {
+      this.targets[i] = null;
+    }
+    this.count = 0;
+    this.aimedTarget = null;
+  }
+
+  /**
+   * Adds the outcome of a virtual bullet to its gun's rolling hit rate.
+   *
+   * @param enemyStatistics The statistics of the enemy the bullet was fired at.
+   * @param gun The ordinal of the gun that fired the bullet.
+   * @param hit <i>true</i> if the bullet hit and <i>false</i> otherwise.
+   */
+  private static void record(Statistics enemyStatistics, int gun, boolean hit) {
+    int shots = Math.min(ROLLING_DEPTH, ++enemyStatistics.shots[gun]);
+    enemyStatistics.hitRates[gun] += ((hit ? 1.0 : 0.0) - enemyStatistics.hitRates[gun]) / shots;
+  }
+
+  /**
+   * Returns the statistics of an enemy, creating them the first time the enemy is fired at.
+   *
+   * @param name The name of the enemy.
+   * @return The statistics of the enemy.
+   */
+  private Statistics getStatistics(String name) {
+    Statistics enemyStatistics = this.statistics.get(name);
+    if (enemyStatistics == null) {
+      enemyStatistics = new Statistics(name);
+      this.statistics.put(name, enemyStatistics);
+    }
+    return enemyStatistics;
+  }
+
+  /**
+   * Drops the oldest bullet in flight, keeping the rest in order.
+   */
+  private void removeOldest() {
+    for (int i = 1; i < this.count; i++) {
+      this.move(i, i - 1);
+    }
+    this.targets[--this.count] = null;
+  }
+
+  /**
+   * Copies a bullet from one slot to another.
+   *
+   * @param from The slot to copy from.
+   * @param to The slot to copy to.
+   */
+  private void move(int from, int to) {
+    this.originXs[to] = this.originXs[from];
+    this.originYs[to] = this.originYs[from];
+    this.headings[to] = this.headings[from];
+    this.speeds[to] = this.speeds[from];
+    this.fireTimes[to] = this.fireTimes[from];
+    this.guns[to] = this.guns[from];
+    this.targets[to] = this.targets[from];
+  }
+}
@@ -26,10 +26,13 @@ import robocode.Condition;
 /**
  * This event fires whenever a robot is too close to one of the four walls.
  *
+ * As a sensor of the SensorStage it is evaluated against the tick's snapshot, and the handler
+ * switches its trigger with <i>setEventTrigger</i> instead of replacing it with a new event.
+ *
  * @author Anthony Christe
  *
  */
-public class WallProximityEvent extends Condition {
+public class WallProximityEvent extends Condition implements Sensor {
   /**
    * Instance of robot associated with this event.
    */
@@ -52,6 +55,16 @@ public class WallProximityEvent extends Condition {
    */
   private EventTrigger triggerOn;
 
+  /**
+   * Records how long this event takes to test, may be null.
+   */
+  private TurnProfiler profiler;
+
+  /**
+   * The distance from a wall at which this robot's wall sensor fires, in pixels.
+   */
+  public static final double DEFAULT_MIN_SAFE_DISTANCE = 40.0;
+
   /**
    * Affect the way the WallProximityEvent fires.
    * 
@@ -89,6 +102,22 @@ public class WallProximityEvent extends Condition {
     this.wallsInViolation = new HashSet<>();
   }
 
+  /**
+   * Creates a WallProximityEvent that records its test time with a profiler.
+   * 
+   * @param robot The robot associated with this event.
+   * @param triggerOn The trigger enum associated with causing this event to fire.
+   * @param minSafeDistance The minimum distance from a wall that will cause this event to fire (in
+   * pixels).
+   * @param profiler The profiler to record test times with.
+   * @see EventTrigger
+   */
+  public WallProximityEvent(AdvancedRobot robot, EventTrigger triggerOn, double minSafeDistance,
+      TurnProfiler profiler) {
+    this(robot, triggerOn, minSafeDistance);
+    this.profiler = profiler;
+  }
+
   /**
    * Tests whether the robot is in danger of hitting a wall or within a safe distance from the wall
    * depending on the <i>EventTrigger</i> enumeration.
@@ -104,25 +133,65 @@ public class WallProximityEvent extends Condition {
    */
   @Override
   public boolean test() {
-    boolean fireEvent = false;
-
-    this.findWallsInViolation(robot.getX(), robot.getY(), robot.getBattleFieldHeight(),
+    long startTime = TurnProfiler.start();
+    boolean fireEvent = this.isTriggered(robot.getX(), robot.getY(), robot.getBattleFieldHeight(),
         robot.getBattleFieldWidth());
 
-    if (this.triggerOn.equals(EventTrigger.WALL_PROXIMITY)) {
-      if (this.wallsInViolation.size() > 0) {
-        fireEvent = true;
-      }
-    }
-    else {
-      if (this.wallsInViolation.size() <= 0) {
-        fireEvent = true;
-      }
+    if (TurnProfiler.ENABLED && this.profiler != null) {
+      this.profiler.record(TurnProfiler.Section.WALL_PROXIMITY_TEST, startTime);
     }
-    
     return fireEvent;
   }
 
+  /**
+   * Tests the robot's position in the tick's snapshot the same way as <i>test</i>.
+   * 
+   * @param snapshot The state of the robot at the start of the tick.
+   * @return <i>true</i> if this event's trigger is met and <i>false</i> otherwise.
+   */
+  @Override
+  public boolean sense(SensorSnapshot snapshot) {
+    return this.isTriggered(snapshot.getX(), snapshot.getY(), snapshot.getFieldHeight(),
+        snapshot.getFieldWidth());
+  }
+
+  /**
+   * Returns the profiler section that wall proximity tests are recorded under.
+   * 
+   * @return The wall proximity test section.
+   */
+  @Override
+  public TurnProfiler.Section getSection() {
+    return TurnProfiler.Section.WALL_PROXIMITY_TEST;
+  }
+
+  /**
+   * Reports this event to the listener's wall proximity callback.
+   * 
+   * @param listener The listener to report to.
+   */
+  @Override
+  public void dispatch(SensorListener listener) {
+    listener.onWallProximity(this);
+  }
+
+  /**
+   * Determines whether this event's trigger is met at a position.
+   * 
+   * @param x The x-coordinate of the robot.
+   * @param y The y-coordinate of the robot.
+   * @param height The height of the playing field.
+   * @param width The width of the playing field.
+   * @return <i>true</i> if the trigger is met and <i>false</i> otherwise.
+   */
+  private boolean isTriggered(double x, double y, double height, double width) {
+    this.findWallsInViolation(x, y, height, width);
+    if (this.triggerOn.equals(EventTrigger.WALL_PROXIMITY)) {
+      return this.wallsInViolation.size() > 0;
+    }
+    return this.wallsInViolation.size() <= 0;
+  }
+
   /**
    * Obtain the minimum safe distance from a wall before this event fires.
    * 
@@ -141,6 +210,15 @@ public class WallProximityEvent extends Condition {
     return this.triggerOn;
   }
 
+  /**
+   * Changes when this event fires, such as waiting for a safe distance once a wall was reached.
+   * 
+   * @param triggerOn The new trigger of this event.
+   */
+  public void setEventTrigger(EventTrigger triggerOn) {
+    this.triggerOn = triggerOn;
+  }
+
   /**
    * Find all walls that robot is within an unsafe distance of.
    * 
@@ -0,0 +1,279 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ajc;
+
+import robocode.Rules;
+
+/**
+ * The expanding circle on which a fired bullet must lie, centered where the bullet was fired.
+ *
+ * Waves are reused by a WaveTracker, so every field is set through <i>set</i> rather than a
+ * constructor.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class Wave {
+  /**
+   * Distance from the center of a robot to its corner, added so a wave only passes a robot once it
+   * has cleared the robot's whole body.
+   */
+  private static final double ROBOT_HALF_DIAGONAL = 25.5;
+
+  /**
+   * The x-coordinate the bullet was fired from.
+   */
+  private double originX;
+
+  /**
+   * The y-coordinate the bullet was fired from.
+   */
+  private double originY;
+
+  /**
+   * The time the bullet was fired.
+   */
+  private long fireTime;
+
+  /**
+   * The power of the bullet.
+   */
+  private double bulletPower;
+
+  /**
+   * The speed of the bullet in pixels per tick.
+   */
+  private double bulletSpeed;
+
+  /**
+   * The name of the robot that fired the bullet.
+   */
+  private String shooter;
+
+  /**
+   * The name of the robot the bullet was aimed at, if known.
+   */
+  private String target;
+
+  /**
+   * The absolute angle in radians from the origin to the target when the bullet was fired.
+   */
+  private double directAngle;
+
+  /**
+   * 1 if the target was moving clockwise around the origin when the bullet was fired, -1 if not.
+   */
+  private int lateralDirection;
+
+  /**
+   * Index of the statistics segment the target was in when the bullet was fired.
+   */
+  private int segment;
+
+  /**
+   * How much the wave counts when it is added to statistics.
+   */
+  private double weight;
+
+  /**
+   * Sets every field of this wave for a newly fired bullet.
+   *
+   * @param originX The x-coordinate the bullet was fired from.
+   * @param originY The y-coordinate the bullet was fired from.
+   * @param fireTime The time the bullet was fired.
+   * @param bulletPower The power of the bullet.
+   * @param shooter The name of the robot that fired the bullet.
+   */
+  public void set(double originX, double originY, long fireTime, double bulletPower,
+      String shooter) {
+    this.originX = originX;
+    this.originY = originY;
+    this.fireTime = fireTime;
+    this.bulletPower = bulletPower;
+    this.bulletSpeed = Rules.getBulletSpeed(bulletPower);
+    this.shooter = shooter;
+    this.target = null;
+    this.directAngle = 0.0;
+    this.lateralDirection = 1;
+    this.segment = 0;
+    this.weight = 1.0;
+  }
+
+  /**
+   * Describes where the target was when the bullet was fired, for guess factor targeting.
+   *
+   * @param target The name of the robot the bullet was aimed at.
+   * @param directAngle The absolute angle in radians from the origin to the target.
+   * @param lateralDirection 1 if the target was moving clockwise around the origin, -1 if not.
+   * @param segment Index of the statistics segment the target was in.
+   * @param weight How much the wave counts when it is added to statistics.
+   */
+  public void setTarget(String target, double directAngle, int lateralDirection, int segment,
+      double weight) {
+    this.target = target;
+    this.directAngle = directAngle;
+    this.lateralDirection = lateralDirection;
+    this.segment = segment;
+    this.weight = weight;
+  }
+
+  /**
+   * Returns how far the bullet has traveled at a given time.
+   *
+   * @param time The current time.
+   * @return The radius of the wave in pixels.
+   */
+  public double getRadius(long time) {
+    return (time - this.fireTime) * this.bulletSpeed;
+  }
+
+  /**
+   * Returns the distance from the wave's origin to a point.
+   *
+   * @param x The x-coordinate of the point.
+   * @param y The y-coordinate of the point.
+   * @return The distance in pixels.
+   */
+  public double getDistance(double x, double y) {
+    double dx = x - this.originX;
+    double dy = y - this.originY;
+    return Math.sqrt(dx * dx + dy * dy);
+  }
+
+  /**
+   * Returns the number of ticks until the wave reaches a point.
+   *
+   * @param x The x-coordinate of the point.
+   * @param y The y-coordinate of the point.
+   * @param time The current time.
+   * @return The ticks until the wave reaches the point, negative once it has passed.
+   */
+  public double getTicksUntilHit(double x, double y, long time) {
+    return (this.getDistance(x, y) - this.getRadius(time)) / this.bulletSpeed;
+  }
+
+  /**
+   * Determines if the wave has completely passed a robot at the given position.
+   *
+   * @param x The x-coordinate of the robot.
+   * @param y The y-coordinate of the robot.
+   * @param time The current time.
+   * @return <i>true</i> if the bullet can no longer hit the robot and <i>false</i> otherwise.
+   */
+  public boolean hasPassed(double x, double y, long time) {
+    return this.getRadius(time) > this.getDistance(x, y) + ROBOT_HALF_DIAGONAL;
+  }
+
+  /**
+   * Returns the x-coordinate the bullet was fired from.
+   *
+   * @return The x-coordinate of the origin.
+   */
+  public double getOriginX() {
+    return this.originX;
+  }
+
+  /**
+   * Returns the y-coordinate the bullet was fired from.
+   *
+   * @return The y-coordinate of the origin.
+   */
+  public double getOriginY() {
+    return this.originY;
+  }
+
+  /**
+   * Returns the time the bullet was fired.
+   *
+   * @return The fire time.
+   */
+  public long getFireTime() {
+    return this.fireTime;
+  }
+
+  /**
+   * Returns the power of the bullet.
+   *
+   * @return The bullet power.
+   */
+  public double getBulletPower() {
+    return this.bulletPower;
+  }
+
+  /**
+   * Returns the speed of the bullet.
+   *
+   * @return The bullet speed in pixels per tick.
+   */
+  public double getBulletSpeed() {
+    return this.bulletSpeed;
+  }
+
+  /**
+   * Returns the name of the robot that fired the bullet.
+   *
+   * @return The name of the shooter.
+   */
+  public String getShooter() {
+    return this.shooter;
+  }
+
+  /**
+   * Returns the name of the robot the bullet was aimed at.
+   *
+   * @return The name of the target, or null if it was not set.
+   */
+  public String getTarget() {
+    return this.target;
+  }
+
+  /**
+   * Returns the absolute angle from the origin to the target when the bullet was fired.
+   *
+   * @return The direct angle in radians.
+   */
+  public double getDirectAngle() {
+    return this.directAngle;
+  }
+
+  /**
+   * Returns which way the target was moving around the origin when the bullet was fired.
+   *
+   * @return 1 for clockwise and -1 for counterclockwise.
+   */
+  public int getLateralDirection() {
+    return this.lateralDirection;
+  }
+
+  /**
+   * Returns the statistics segment the target was in when the bullet was fired.
+   *
+   * @return The segment index.
+   */
+  public int getSegment() {
+    return this.segment;
+  }
+
+  /**
+   * Returns how much the wave counts when it is added to statistics.
+   *
+   * @return The weight of the wave.
+   */
+  public double getWeight() {
+    return this.weight;
+  }
+}
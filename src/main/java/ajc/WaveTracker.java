@@ -0,0 +1,232 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ajc;
+
+/**
+ * Tracks the waves of bullets in flight towards a target using a fixed pool of Wave objects.
+ *
+ * All waves are allocated when the tracker is created. Spawning a wave takes one from the pool
+ * and expiring a wave returns it, so tracking waves never allocates no matter how many bullets are
+ * fired. If every wave is in use, the oldest wave is recycled.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class WaveTracker {
+  /**
+   * The number of waves tracked when no capacity is given.
+   */
+  public static final int DEFAULT_CAPACITY = 64;
+
+  /**
+   * Waves currently in flight, in the order they were spawned, in slots 0 to activeCount - 1.
+   */
+  private final Wave[] active;
+
+  /**
+   * Waves available to be spawned, in slots 0 to freeCount - 1.
+   */
+  private final Wave[] free;
+
+  /**
+   * The number of waves in flight.
+   */
+  private int activeCount = 0;
+
+  /**
+   * The number of waves available to be spawned.
+   */
+  private int freeCount;
+
+  /**
+   * Creates a tracker with room for <i>DEFAULT_CAPACITY</i> waves.
+   */
+  public WaveTracker() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a tracker with a custom number of waves.
+   *
+   * @param capacity The maximum number of waves in flight at once.
+   */
+  public WaveTracker(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("WaveTracker expects a capacity of at least 1");
+    }
+    this.active = new Wave[capacity];
+    this.free = new Wave[capacity];
+    for (int i = 0; i < capacity; i++) {
+      this.free[i] = new Wave();
+    }
+    this.freeCount = capacity;
+  }
+
+  /**
+   * Starts tracking a newly fired bullet.
+   *
+   * @param originX The x-coordinate the bullet was fired from.
+   * @param originY The y-coordinate the bullet was fired from.
+   * @param fireTime The time the bullet was fired.
+   * @param bulletPower The power of the bullet.
+   * @param shooter The name of the robot that fired the bullet.
+   * @return The wave of the bullet, owned by this tracker.
+   */
+  public Wave spawn(double originX, double originY, long fireTime, double bulletPower,
+      String shooter) {
+    if (this.freeCount == 0) {
+      this.remove(0);
+    }
+    Wave wave = this.free[--this.freeCount];
+    this.free[this.freeCount] = null;
+    wave.set(originX, originY, fireTime, bulletPower, shooter);
+    this.active[this.activeCount++] = wave;
+    return wave;
+  }
+
+  /**
+   * Expires every wave that has completely passed the target.
+   *
+   * @param targetX The x-coordinate of the target.
+   * @param targetY The y-coordinate of the target.
+   * @param time The current time.
+   */
+  public void advance(double targetX, double targetY, long time) {
+    int i = 0;
+    while (i < this.activeCount) {
+      if (this.active[i].hasPassed(targetX, targetY, time)) {
+        this.remove(i);
+      }
+      else {
+        i++;
+      }
+    }
+  }
+
+  /**
+   * Expires every wave that has traveled further than a given distance.
+   *
+   * @param maxRadius The largest radius a wave may have, such as the battlefield diagonal.
+   * @param time The current time.
+   */
+  public void expireBeyond(double maxRadius, long time) {
+    int i = 0;
+    while (i < this.activeCount) {
+      if (this.active[i].getRadius(time) > maxRadius) {
+        this.remove(i);
+      }
+      else {
+        i++;
+      }
+    }
+  }
+
+  /**
+   * Returns the wave that will reach the target soonest.
+   *
+   * @param targetX The x-coordinate of the target.
+   * @param targetY The y-coordinate of the target.
+   * @param time The current time.
+   * @return The closest wave, or null if no waves are in flight.
+   */
+  public Wave getClosestWave(double targetX, double targetY, long time) {
+    Wave closest = null;
+    double closestTicks = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < this.activeCount; i++) {
+      double ticks = this.active[i].getTicksUntilHit(targetX, targetY, time);
+      if (ticks > -1 && ticks < closestTicks) {
+        closest = this.active[i];
+        closestTicks = ticks;
+      }
+    }
+    return closest;
+  }
+
+  /**
+   * Returns the wave of a shooter whose front is nearest to a position, such as where its bullet
+   * just hit.
+   *
+   * @param shooter The name of the robot that fired the wave.
+   * @param x The x-coordinate of the position.
+   * @param y The y-coordinate of the position.
+   * @param time The current time.
+   * @return The nearest wave of the shooter, or null if it has none in flight.
+   */
+  public Wave findWave(String shooter, double x, double y, long time) {
+    Wave nearest = null;
+    double nearestGap = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < this.activeCount; i++) {
+      Wave wave = this.active[i];
+      if (shooter.equals(wave.getShooter())) {
+        double gap = Math.abs(wave.getRadius(time) - wave.getDistance(x, y));
+        if (gap < nearestGap) {
+          nearest = wave;
+          nearestGap = gap;
+        }
+      }
+    }
+    return nearest;
+  }
+
+  /**
+   * Returns a wave in flight.
+   *
+   * @param index The index of the wave, from 0 to size() - 1 with older waves first.
+   * @return The wave at the index.
+   */
+  public Wave get(int index) {
+    if (index < 0 || index >= this.activeCount) {
+      throw new IndexOutOfBoundsException("No wave at index " + index);
+    }
+    return this.active[index];
+  }
+
+  /**
+   * Returns the number of waves in flight.
+   *
+   * @return The number of active waves.
+   */
+  public int size() {
+    return this.activeCount;
+  }
+
+  /**
+   * Expires every wave in flight.
+   */
+  public void clear() {
+    while (this.activeCount > 0) {
+      this.remove(this.activeCount - 1);
+    }
+  }
+
+  /**
+   * Expires a single wave, keeping the remaining waves in the order they were spawned.
+   *
+   * The wave is returned to the pool and must not be used after this call.
+   *
+   * @param index The index of the wave to remove.
+   */
+  public void remove(int index) {
+    if (index < 0 || index >= this.activeCount) {
+      throw new IndexOutOfBoundsException("No wave at index " + index);
+    }
+    Wave wave = this.active[index];
+    System.arraycopy(this.active, index + 1, this.active, index, this.activeCount - index - 1);
+    this.active[--this.activeCount] = null;
+    this.free[this.freeCount++] = wave;
+  }
+}
@@ -18,18 +18,27 @@
 package ajc;
 
 import java.awt.Color;
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Random;
 import robocode.AdvancedRobot;
+import robocode.Bullet;
+import robocode.BulletHitBulletEvent;
 import robocode.BulletHitEvent;
+import robocode.BulletMissedEvent;
 import robocode.Condition;
 import robocode.CustomEvent;
+import robocode.HitByBulletEvent;
 import robocode.HitRobotEvent;
+import robocode.RobotDeathEvent;
+import robocode.RoundEndedEvent;
 import robocode.Rules;
 import robocode.ScannedRobotEvent;
+import robocode.SkippedTurnEvent;
 import robocode.WinEvent;
 import robocode.util.Utils;
+import ajc.CommandBuffer.Channel;
+import ajc.CommandBuffer.Priority;
 import ajc.WallProximityEvent.EventTrigger;
 
 /**
@@ -42,10 +51,34 @@ import ajc.WallProximityEvent.EventTrigger;
  * back of the robot first). Throughout this class, this robot's forward refers to the direction it
  * thinks is front.
  * 
+ * Robocode creates a new instance of this robot every round but keeps its class loaded for the
+ * whole battle, so everything learned about enemies is kept in static fields. Only what belongs to
+ * a single round, such as positions and bullets in flight, is cleared when a new round starts.
+ * 
  * @author Anthony Christe
  *
  */
-public final class WrathOfPele extends AdvancedRobot {
+public final class WrathOfPele extends AdvancedRobot implements SensorListener {
+  /**
+   * Below this gun heat the radar locks onto the target so its scan is fresh when the gun fires.
+   */
+  private static final double RADAR_FOCUS_GUN_HEAT = 0.4;
+
+  /**
+   * How many ticks ahead the robot's movement is simulated to look for wall collisions.
+   */
+  private static final int WALL_LOOKAHEAD_TICKS = 20;
+
+  /**
+   * How far from the walls wall smoothing keeps the robot's path.
+   */
+  private static final double WALL_SMOOTHING_MARGIN = 45.0;
+
+  /**
+   * Melee battlefields with a larger area than this use anti-gravity movement.
+   */
+  private static final double LARGE_FIELD_AREA = 1000.0 * 1000.0;
+
   /**
    * Instance of utilities class associated with this robot.
    */
@@ -61,15 +94,86 @@ public final class WrathOfPele extends AdvancedRobot {
    */
   private boolean frontAsForward = true;
 
+  /**
+   * Predicts this robot's movement to find wall collisions before they happen.
+   */
+  private MovementSimulator movementSimulator;
+
+  /**
+   * Collects the intents of every subsystem during a tick so they are committed by one execute.
+   */
+  private CommandBuffer commands;
+
+  /**
+   * Plans every shot a tick before the gun cools so no cool tick is wasted turning the gun.
+   */
+  private FirePipeline firePipeline;
+
   /**
    * Provides random numbers for random movements by this robot.
    */
-  private Random random;
+  private static Random random;
+
+  /**
+   * Stores all scanned robots along with their energy history and the known causes of their
+   * energy changes.
+   */
+  private static EnergyLedger energyLedger;
+
+  /**
+   * Positions and motion of all scanned robots keyed by name.
+   */
+  private static Map<String, EnemyModel> enemies;
+
+  /**
+   * Waves of the bullets enemies have fired at this robot that are still in flight.
+   */
+  private static WaveTracker enemyWaves;
+
+  /**
+   * Learns where each enemy tends to move while our bullets are in flight and aims there.
+   */
+  private static GuessFactorGun guessFactorGun;
+
+  /**
+   * Predicts where enemies will be when our bullets arrive, for the linear and circular guns.
+   */
+  private static InterceptSolver interceptSolver;
+
+  /**
+   * Fires virtual bullets from every aiming strategy to find the one that hits each enemy best.
+   */
+  private static VirtualGunArray virtualGuns;
+
+  /**
+   * Decides where to turn the radar so that every enemy is scanned as often as possible.
+   */
+  private static RadarScheduler radarScheduler;
+
+  /**
+   * Chooses which enemy the gun and radar commit to.
+   */
+  private static TargetSelector targetSelector;
+
+  /**
+   * Chooses where to move in melee.
+   */
+  private static MinimumRiskMovement minimumRiskMovement;
+
+  /**
+   * Moves away from enemies and their recent positions in melee on large battlefields.
+   */
+  private static AntiGravityMovement antiGravityMovement;
+
+  /**
+   * Loads and saves what has been learned about each opponent across battles.
+   */
+  private static OpponentStore opponentStore;
 
   /**
-   * Stores all scanned robots along with their energy history.
+   * Chooses bullet powers from how often each enemy has been hit at each distance.
    */
-  private HashMap<String, ArrayList<Double>> scannedRobots;
+  private static FirePowerSelector firePowerSelector;
 
   /**
    * Gets set by the wallProximityEvent.
@@ -79,9 +183,14 @@ public final class WrathOfPele extends AdvancedRobot {
   private boolean nearWall = false;
 
   /**
-   * Keeps track of the damage dealth by this robot's last bullet on an enemy robot.
+   * Queues enemy shots detected while scanning so they can be handled as custom events.
    */
-  private Double lastBulletHitEnergy = 0.0;
+  private static FiredUponEvent firedUponEvent;
+
+  /**
+   * Records handler running times and skipped turns when profiling is enabled.
+   */
+  private static TurnProfiler profiler;
   
   /**
    * Setup, scan for, and attack enemy robots.
@@ -90,21 +199,50 @@ public final class WrathOfPele extends AdvancedRobot {
   public void run() {
     init();
     this.setAdjustRadarForGunTurn(true);
+    this.setAdjustGunForRobotTurn(true);
 
     while (true) {
-      // If we've slowed down and not near a wall, move randomly
-      if (this.getVelocity() < 3 && !nearWall) {
-        this.moveInArc();
+      long startTime = TurnProfiler.start();
+
+      // Forget enemy bullets that can no longer hit us
+      enemyWaves.advance(this.getX(), this.getY(), this.getTime());
+
+      // Score the virtual bullets that reached their targets
+      virtualGuns.advance(this.getTime(), enemies);
+
+      if (this.isMelee()) {
+        // Head for the safest spot nearby, or follow the forces on battlefields too large to
+        // score candidates across
+        if (this.getBattleFieldWidth() * this.getBattleFieldHeight() > LARGE_FIELD_AREA) {
+          antiGravityMovement.choose(this.getX(), this.getY(), this.getTime());
+          this.goTo(antiGravityMovement.getDestinationX(), antiGravityMovement.getDestinationY());
+        }
+        else {
+          this.moveMinimumRisk();
+        }
       }
+      else {
+        // If we've slowed down and not near a wall, move randomly
+        if (this.getVelocity() < 3 && !nearWall) {
+          this.moveInArc(Priority.ROUTINE);
+        }
 
-      // The robot is "stuck" on a wall
-      if (nearWall && this.getVelocity() == 0) {
-        this.switchForward();
-        this.moveInArc();
-        //ahead(100);
+        // The robot is "stuck" on a wall
+        if (nearWall && this.getVelocity() == 0) {
+          this.switchForward();
+          this.moveInArc(Priority.ROUTINE);
+          //ahead(100);
+        }
+      }
+      // Fire a planned shot even if the target wasn't scanned this tick
+      this.fireIfPlanned();
+      if (this.firePipeline.isWasted(this.getTime(), this.getGunHeat())) {
+        profiler.recordWastedCoolTick();
       }
+
       // Scan for other robots
-      this.setTurnRadarLeft(360);
+      this.turnRadar();
+      profiler.record(TurnProfiler.Section.RUN_LOOP, startTime);
       this.execute();
     }
   }
@@ -130,50 +268,155 @@ public final class WrathOfPele extends AdvancedRobot {
   /**
    * If the robot's forward is front, move ahead, otherwise move backwards.
    * 
-   * @param distance {@inheritDoc}
+   * The distance is buffered as a routine intent and only committed by the next execute.
+   * 
+   * @param {@inheritDoc}
    */
   @Override
-  public void ahead(double distance) {
-    // Forward is front
-    if (frontAsForward) {
-      super.ahead(distance);
-    }
-    // Forward is back
-    else {
-      super.back(distance);
-    }
+  public void setAhead(double distance) {
+    this.move(distance, Priority.ROUTINE);
   }
 
   /**
-   * If the robot's forward is front, move ahead, otherwise move backwards.
+   * Steers away from any wall the robot is about to hit, commits every buffered intent and then
+   * executes all pending commands.
    * 
-   * @param {@inheritDoc}
+   * This is the only place the robot's setters are called during a round, so no matter how many
+   * handlers ran during the tick the robot is given exactly one set of commands.
    */
   @Override
-  public void setAhead(double distance) {
-    // Forward is front
-    if (frontAsForward) {
-      super.setAhead(distance);
+  public void execute() {
+    this.avoidWalls();
+    if (this.commands.has(Channel.BODY_TURN)) {
+      super.setTurnRightRadians(this.commands.get(Channel.BODY_TURN, 0.0));
     }
-    // Forward is back
-    else {
-      super.setBack(distance);
+    if (this.commands.has(Channel.DISTANCE)) {
+      super.setAhead(this.commands.get(Channel.DISTANCE, 0.0));
+    }
+    if (this.commands.has(Channel.GUN_TURN)) {
+      super.setTurnGunRightRadians(this.commands.get(Channel.GUN_TURN, 0.0));
     }
+    if (this.commands.has(Channel.RADAR_TURN)) {
+      super.setTurnRadarRightRadians(this.commands.get(Channel.RADAR_TURN, 0.0));
+    }
+    if (this.commands.has(Channel.FIRE)) {
+      // Only the fire pipeline fires, so the shot belongs to its planned target
+      Bullet bullet = super.setFireBullet(this.commands.get(Channel.FIRE, 0.0));
+      if (bullet != null) {
+        firePowerSelector.recordShot(bullet, this.firePipeline.getPlannedTarget(),
+            this.firePipeline.getPlannedDistance());
+      }
+    }
+    this.commands.clear();
+    super.execute();
+  }
+
+  /**
+   * Buffers a move toward this robot's forward, which is backwards when the back is forward.
+   * 
+   * @param distance The distance to move in pixels, negative to move away from forward.
+   * @param priority How important the move is.
+   */
+  private void move(double distance, Priority priority) {
+    this.commands.offer(Channel.DISTANCE, frontAsForward ? distance : -distance, priority);
+  }
+
+  /**
+   * Buffers a clockwise turn of the body.
+   * 
+   * @param radians The angle to turn in radians, negative to turn counterclockwise.
+   * @param priority How important the turn is.
+   */
+  private void turnBody(double radians, Priority priority) {
+    this.commands.offer(Channel.BODY_TURN, radians, priority);
   }
 
   /**
    * Performs basic robot initialization.
    * 
-   * Sets the team colors, manages debugging, and sets up custom events.
+   * Sets the team colors, manages debugging, and sets up custom events. The structures that
+   * survive between rounds are created in the first round and only reset in later rounds.
    */
   private void init() {
     this.utils = new RobotUtilities(this);
-    this.scannedRobots = new HashMap<>();
-    this.random = new Random(System.currentTimeMillis());
+    this.movementSimulator = new MovementSimulator();
+    this.commands = new CommandBuffer();
+    this.firePipeline = new FirePipeline();
+    if (enemies == null || this.getRoundNum() == 0) {
+      profiler = new TurnProfiler();
+      energyLedger = new EnergyLedger();
+      enemies = new HashMap<>();
+      enemyWaves = new WaveTracker();
+      guessFactorGun = new GuessFactorGun();
+      interceptSolver = new InterceptSolver();
+      virtualGuns = new VirtualGunArray(guessFactorGun, interceptSolver);
+      radarScheduler = new RadarScheduler();
+      targetSelector = new TargetSelector();
+      opponentStore = new OpponentStore(this);
+      firePowerSelector =
+          new FirePowerSelector(this.getBattleFieldWidth(), this.getBattleFieldHeight());
+      random = new Random(System.currentTimeMillis());
+      firedUponEvent = new FiredUponEvent(profiler);
+      minimumRiskMovement = new MinimumRiskMovement(random);
+      antiGravityMovement =
+          new AntiGravityMovement(this.getBattleFieldWidth(), this.getBattleFieldHeight());
+    }
+    else {
+      this.resetRound();
+    }
     utils.setTeamColors();
-    this.addCustomEvent(new WallProximityEvent(this,
-        WallProximityEvent.EventTrigger.WALL_PROXIMITY, 40.0));
-    this.addCustomEvent(new FiredUponEvent(this.scannedRobots, this.lastBulletHitEnergy));
+    this.addCustomEvent(new SensorStage(this, profiler, new WallProximityEvent(this,
+        WallProximityEvent.EventTrigger.WALL_PROXIMITY,
+        WallProximityEvent.DEFAULT_MIN_SAFE_DISTANCE, profiler), firedUponEvent));
+  }
+
+  /**
+   * Forgets what only held during the previous round while keeping what was learned.
+   * 
+   * Enemy positions, energies and bullets in flight are cleared, while gun statistics and opponent
+   * profiles are kept.
+   */
+  private void resetRound() {
+    for (EnemyModel enemy : enemies.values()) {
+      enemy.reset();
+    }
+    energyLedger.resetRound();
+    enemyWaves.clear();
+    guessFactorGun.resetRound();
+    virtualGuns.resetRound();
+    targetSelector.resetRound();
+    minimumRiskMovement.resetRound();
+    antiGravityMovement.resetRound();
+    firePowerSelector.resetRound();
+    opponentStore.attach(this);
+    firedUponEvent.clear();
+  }
+
+  /**
+   * Simulates the robot's pending movement and, if it would hit a wall, turns it to slide along the
+   * wall instead.
+   * 
+   * The pending turn and distance are kept, only the direction of travel is bent away from the
+   * wall, so the robot keeps its speed rather than stopping.
+   */
+  private void avoidWalls() {
+    double width = this.getBattleFieldWidth();
+    double height = this.getBattleFieldHeight();
+    double bodyHeading = this.getHeadingRadians();
+    double turnRemaining = this.commands.get(Channel.BODY_TURN, this.getTurnRemainingRadians());
+    double distanceRemaining = this.commands.get(Channel.DISTANCE, this.getDistanceRemaining());
+    this.movementSimulator.set(this.getX(), this.getY(), bodyHeading, this.getVelocity(),
+        turnRemaining, distanceRemaining);
+    if (this.movementSimulator.predictWallHit(WALL_LOOKAHEAD_TICKS, width, height) < 0) {
+      return;
+    }
+
+    // Travelling backwards means the body faces away from the direction of travel
+    boolean backwards = distanceRemaining < 0 || (distanceRemaining == 0 && this.getVelocity() < 0);
+    double reverse = backwards ? Math.PI : 0.0;
+    double travel = MovementSimulator.smooth(this.getX(), this.getY(),
+        bodyHeading + turnRemaining + reverse, WALL_SMOOTHING_MARGIN, width, height);
+    this.turnBody(Utils.normalRelativeAngle(travel - reverse - bodyHeading), Priority.WALL);
   }
 
   /**
@@ -187,49 +430,100 @@ public final class WrathOfPele extends AdvancedRobot {
    * Causes this robot to move in arcs with a set distance.
    * 
    * @param distance The distance this robot will move during the arc.
+   * @param priority How important the move is.
    */
-  private void moveInArc(double distance) {
+  private void moveInArc(double distance, Priority priority) {
     // Cause robot to turn between 30 and 75 degrees to left or right
     double randomDelta = random.nextInt(45) + 30;
     randomDelta = randomDelta * (random.nextBoolean() ? 1 : -1);
-    setHeading(this.getHeading() + randomDelta);
+    setHeading(this.getHeading() + randomDelta, priority);
     
     // If distance is negative, then choose a random distance
     if (distance < 0) {
-      setAhead(random.nextInt(300) + 100); 
+      this.move(random.nextInt(300) + 100, priority); 
     } 
     // Otherwise, use the given distance
     else {
-      setAhead(distance);
+      this.move(distance, priority);
     }
-    
-    this.execute();
   }
   
   /**
    * Causes this robot to move in arcs with a random distance.
+   * 
+   * @param priority How important the move is.
+   */
+  private void moveInArc(Priority priority) {
+    moveInArc(-1, priority);
+  }
+
+  /**
+   * Determines if more than one enemy is still alive.
+   * 
+   * @return <i>true</i> in melee and <i>false</i> in a one on one battle.
    */
-  private void moveInArc() {
-    moveInArc(-1);
+  private boolean isMelee() {
+    return this.getOthers() > 1;
+  }
+
+  /**
+   * Scores candidate destinations against every known enemy and recent hit, and heads for the
+   * safest one.
+   */
+  private void moveMinimumRisk() {
+    minimumRiskMovement.clearEnemies();
+    for (EnemyModel enemy : enemies.values()) {
+      if (enemy.getScanTime() >= 0) {
+        minimumRiskMovement.addEnemy(enemy.getX(), enemy.getY(), enemy.getEnergy());
+      }
+    }
+    minimumRiskMovement.choose(this.getX(), this.getY(), this.getBattleFieldWidth(),
+        this.getBattleFieldHeight());
+    this.goTo(minimumRiskMovement.getDestinationX(), minimumRiskMovement.getDestinationY());
+  }
+
+  /**
+   * Drives toward a point, driving backwards when the point is behind the robot rather than
+   * turning around.
+   * 
+   * @param x The x-coordinate to drive to.
+   * @param y The y-coordinate to drive to.
+   */
+  private void goTo(double x, double y) {
+    double distance = Math.hypot(x - this.getX(), y - this.getY());
+    double angle = Utils.normalRelativeAngle(
+        RobotUtilities.getAbsoluteBearing(this.getX(), this.getY(), x, y)
+        - this.getHeadingRadians());
+    if (Math.abs(angle) > Math.PI / 2) {
+      angle = Utils.normalRelativeAngle(angle + Math.PI);
+      distance = -distance;
+    }
+    this.turnBody(angle, Priority.ROUTINE);
+    this.commands.offer(Channel.DISTANCE, distance, Priority.ROUTINE);
   }
 
   /**
    * Turns the robot towards a new heading using the shortest arc distance to the new heading.
    * 
    * @param heading The new heading to adjust to.
+   * @param priority How important the turn is.
    */
-  private void setHeading(double heading) {
-    setTurnRight(Utils.normalRelativeAngleDegrees(heading));
+  private void setHeading(double heading, Priority priority) {
+    this.turnBody(Math.toRadians(Utils.normalRelativeAngleDegrees(heading)), priority);
   }
 
   /**
    * If a robot hits another robot, switch which direction is forward to move in opposite direction.
    * 
+   * The collision damages the enemy too, so it is recorded so the firedUpon event doesn't fire
+   * from the enemy's energy loss.
+   * 
    * @param evt The event that is fired when this robot hits another robot.
    */
   @Override
   public void onHitRobot(HitRobotEvent evt) {
-    this.moveInArc();
+    energyLedger.recordRam(evt.getName());
+    this.moveInArc(Priority.EVADE);
   }
 
   /**
@@ -242,7 +536,49 @@ public final class WrathOfPele extends AdvancedRobot {
    */
   @Override
   public void onBulletHit(BulletHitEvent evt) {
-    this.lastBulletHitEnergy = evt.getEnergy();
+    energyLedger.recordBulletHit(evt.getName(), evt.getBullet().getPower());
+    targetSelector.recordHit(evt.getName());
+    firePowerSelector.recordHit(evt.getBullet(), evt.getName());
+  }
+
+  /**
+   * Records that one of our bullets left the battlefield without hitting anything.
+   * 
+   * @param evt The event that is fired when one of this robot's bullets hits a wall.
+   */
+  @Override
+  public void onBulletMissed(BulletMissedEvent evt) {
+    firePowerSelector.recordMiss(evt.getBullet());
+  }
+
+  /**
+   * Records that one of our bullets was destroyed by an enemy bullet, which counts as a miss.
+   * 
+   * @param evt The event that is fired when one of this robot's bullets hits another bullet.
+   */
+  @Override
+  public void onBulletHitBullet(BulletHitBulletEvent evt) {
+    firePowerSelector.recordMiss(evt.getBullet());
+  }
+
+  /**
+   * Records the energy an enemy gained by hitting this robot so it isn't mistaken for the enemy
+   * not firing.
+   * 
+   * @param evt The event that is fired when an enemy bullet hits this robot.
+   */
+  @Override
+  public void onHitByBullet(HitByBulletEvent evt) {
+    energyLedger.recordHitByBullet(evt.getName(), evt.getPower());
+    minimumRiskMovement.recordHit(this.getX(), this.getY());
+    targetSelector.recordDamageTaken(evt.getName(), Rules.getBulletDamage(evt.getPower()));
+
+    // Remember where on the enemy's wave we were caught so future movement can avoid it
+    Wave wave = enemyWaves.findWave(evt.getName(), this.getX(), this.getY(), this.getTime());
+    if (wave != null) {
+      opponentStore.getProfile(evt.getName())
+          .addDanger(GuessFactorGun.getGuessFactor(wave, this.getX(), this.getY()));
+    }
   }
   
   /**
@@ -252,38 +588,164 @@ public final class WrathOfPele extends AdvancedRobot {
    */
   @Override
   public void onScannedRobot(ScannedRobotEvent evt) {
+    long startTime = TurnProfiler.start();
     if (!nearWall) {
-      // Square off against enemy
-      // From http://mark.random-article.com/robocode/basic_movement.html
-      this.setTurnRight(evt.getBearing() + 90);
+      // Store the robots position and energy and check whether it just fired
+      double absoluteBearing = Math.toRadians(super.getHeading() + evt.getBearing());
+      double enemyX = this.getX() + RobotUtilities.sin(absoluteBearing) * evt.getDistance();
+      double enemyY = this.getY() + RobotUtilities.cos(absoluteBearing) * evt.getDistance();
+      EnemyModel enemy = this.getEnemy(evt.getName());
+      enemy.update(this.getTime(), enemyX, enemyY, evt.getHeadingRadians(), evt.getVelocity(),
+          evt.getEnergy(), evt.getDistance());
+
+      antiGravityMovement.addSource(evt.getName(), enemyX, enemyY,
+          Math.max(evt.getEnergy(), 1.0) * AntiGravityMovement.ENERGY_STRENGTH, this.getTime());
 
-      // If we havn't scanned this robot before, add it to known robots.
-      if (!this.scannedRobots.containsKey(evt.getName())) {
-        this.scannedRobots.put(evt.getName(), new ArrayList<Double>());
+      double bulletPower = energyLedger.recordScan(evt.getName(), evt.getEnergy(),
+          evt.getVelocity(), enemyX, enemyY, this.getBattleFieldWidth(),
+          this.getBattleFieldHeight());
+      if (bulletPower > 0) {
+        // The bullet left the enemy during the previous turn
+        Wave wave = enemyWaves.spawn(enemy.getFiringX(), enemy.getFiringY(),
+            this.getTime() - 1, bulletPower, evt.getName());
+        double directAngle = RobotUtilities.getAbsoluteBearing(enemy.getFiringX(),
+            enemy.getFiringY(), this.getX(), this.getY());
+        double lateralVelocity =
+            this.getVelocity() * RobotUtilities.sin(this.getHeadingRadians() - directAngle);
+        wave.setTarget(this.getName(), directAngle, lateralVelocity < 0 ? -1 : 1, 0, 1.0);
+        opponentStore.getProfile(evt.getName()).addFirePower(bulletPower);
+        firedUponEvent.enqueue(evt.getName(), bulletPower);
       }
 
-      // Store the robots energy
-      this.scannedRobots.get(evt.getName()).add(evt.getEnergy());
+      // Learn from our waves that reached the enemy, then aim at its most visited guess factor.
+      // Until the enemy's current segment has been visited enough, predict where it will be
+      // assuming it keeps its current speed and turn rate.
+      guessFactorGun.update(enemy, this.getTime(),
+          Math.hypot(this.getBattleFieldWidth(), this.getBattleFieldHeight()));
 
-      // Determine relative angles needed to turn radar and gun, and then turn them.
-      double radarTurnAngle =
-          RobotUtilities.getTargetTurnAngle(super.getHeading(), this.getRadarHeading(),
-              evt.getBearing());
-      double gunTurnAngle =
-          RobotUtilities.getTargetTurnAngle(super.getHeading(), this.getGunHeading(),
-              evt.getBearing());
+      // Rescore the enemy and keep the radar on the enemies with the freshest possible scans
+      targetSelector.update(enemy);
+      this.turnRadar();
 
-      this.setTurnRadarRight(Utils.normalRelativeAngleDegrees(radarTurnAngle));
-      this.setTurnGunRight(Utils.normalRelativeAngleDegrees(gunTurnAngle));
-      
-      // Make sure our gun is actually pointing at the robot before firing
-      // Also ensure that the gun is cool before firing
-      // Inspired from http://mark.random-article.com/robocode/basic_targeting.html
-      if (Math.abs(this.getGunTurnRemaining()) < 5 && this.getGunHeat() == 0) {
-        this.setFire(utils.getProportionalFirePower(evt.getDistance()));
+      // Only engage the selected target so the gun doesn't thrash between enemies
+      if (evt.getName().equals(targetSelector.getTarget())) {
+        this.engage(enemy, evt.getBearing());
       }
-      this.execute();
     }
+    profiler.record(TurnProfiler.Section.SCANNED_ROBOT, startTime);
+  }
+
+  /**
+   * Squares off against the target, fires the shot planned for this tick and aims for the next.
+   * 
+   * The gun always aims for where the target will be on the next tick, and the shot is planned as
+   * soon as the gun will be cool by then, so it fires on the first cool tick.
+   * 
+   * @param enemy The target, which was just scanned.
+   * @param bearing The bearing to the target in degrees relative to this robot's body.
+   */
+  private void engage(EnemyModel enemy, double bearing) {
+    // Square off against enemy, in melee minimum risk movement steers instead
+    // From http://mark.random-article.com/robocode/basic_movement.html
+    if (!this.isMelee()) {
+      this.turnBody(Math.toRadians(Utils.normalRelativeAngleDegrees(bearing + 90)),
+          Priority.ENGAGE);
+    }
+
+    // The gun was turned for last tick's plan, so fire that shot before aiming again
+    double firedPower = this.fireIfPlanned();
+    double firePower =
+        firePowerSelector.getPower(enemy.getName(), enemy.getDistance(), enemy.getEnergy());
+
+    // Aim from where this robot will be on the next tick, when a shot planned now is fired
+    long fireTime = this.getTime() + 1;
+    double bodyHeading = this.getHeadingRadians();
+    double shooterX = this.getX() + RobotUtilities.sin(bodyHeading) * this.getVelocity();
+    double shooterY = this.getY() + RobotUtilities.cos(bodyHeading) * this.getVelocity();
+    // Aim with the virtual gun that has hit this enemy most often, but only trust the guess
+    // factor gun once the enemy's current segment has been visited enough
+    virtualGuns.aim(enemy, shooterX, shooterY, firePower, fireTime, this.getBattleFieldWidth(),
+        this.getBattleFieldHeight());
+    VirtualGunArray.Gun gun = virtualGuns.getBestGun(enemy.getName());
+    if (gun == VirtualGunArray.Gun.GUESS_FACTOR
+        && !guessFactorGun.hasStatistics(enemy, shooterX, shooterY)) {
+      gun = VirtualGunArray.DEFAULT_GUN;
+    }
+    double aimAngle = virtualGuns.getAngle(gun);
+    this.commands.offer(Channel.GUN_TURN,
+        Utils.normalRelativeAngle(aimAngle - this.getGunHeadingRadians()), Priority.ENGAGE);
+
+    // Once the gun will be cool by the next tick, the shot is planned for the angle the gun is
+    // turning to now
+    if (firedPower == 0 && FirePipeline.isAimingTick(this.getGunHeat(), this.getGunCoolingRate())) {
+      this.firePipeline.plan(fireTime, aimAngle, firePower, enemy.getDistance(), enemy.getName());
+    }
+    guessFactorGun.fireWave(enemy, this.getX(), this.getY(), this.getTime(),
+        firedPower > 0 ? firedPower : firePower, firedPower > 0);
+  }
+
+  /**
+   * Fires the shot planned for this tick if the gun is cool and reached the planned angle.
+   * 
+   * @return The power of the bullet fired, or 0 if no bullet was fired.
+   */
+  private double fireIfPlanned() {
+    double power =
+        this.firePipeline.fire(this.getTime(), this.getGunHeat(), this.getGunHeadingRadians());
+    if (power > 0) {
+      this.commands.offer(Channel.FIRE, power, Priority.ENGAGE);
+      targetSelector.recordShot(this.firePipeline.getPlannedTarget());
+      virtualGuns.fire(this.firePipeline.getPlannedTarget(), this.getX(), this.getY(),
+          this.getTime(), power);
+    }
+    return power;
+  }
+
+  /**
+   * Turns the radar toward the enemy that most needs to be scanned.
+   * 
+   * Shortly before the gun is ready to fire, the radar locks onto the target so it is aimed at
+   * with a fresh scan.
+   */
+  private void turnRadar() {
+    EnemyModel focus = null;
+    if (this.getGunHeat() < RADAR_FOCUS_GUN_HEAT && targetSelector.getTarget() != null) {
+      focus = enemies.get(targetSelector.getTarget());
+    }
+    this.commands.offer(Channel.RADAR_TURN, radarScheduler.getTurn(this.getX(), this.getY(),
+        this.getRadarHeadingRadians(), this.getOthers(), enemies, focus, this.getTime()),
+        Priority.ROUTINE);
+  }
+
+  /**
+   * Forgets the position of an enemy that died so the radar stops looking for it.
+   * 
+   * @param evt The event fired when another robot dies.
+   */
+  @Override
+  public void onRobotDeath(RobotDeathEvent evt) {
+    EnemyModel enemy = enemies.get(evt.getName());
+    if (enemy != null) {
+      enemy.reset();
+    }
+    targetSelector.remove(evt.getName());
+  }
+
+  /**
+   * Returns the model of an enemy, creating it the first time the enemy is scanned.
+   * 
+   * @param name The name of the enemy robot.
+   * @return The model of the enemy.
+   */
+  private EnemyModel getEnemy(String name) {
+    EnemyModel enemy = enemies.get(name);
+    if (enemy == null) {
+      enemy = new EnemyModel(name);
+      enemies.put(name, enemy);
+      guessFactorGun.setStatistics(name,
+          opponentStore.getProfile(name).getGunStatistics());
+    }
+    return enemy;
   }
 
   /**
@@ -296,6 +758,10 @@ public final class WrathOfPele extends AdvancedRobot {
     Color[] rainbow =
         { Color.RED, Color.ORANGE, Color.YELLOW, Color.GREEN, Color.BLUE, Color.MAGENTA };
     int i = 0;
+    // Nothing is left to dodge, so drop the buffered intents and skip wall avoidance, which would
+    // otherwise replace the spin
+    this.commands.clear();
+    super.setAhead(0);
     this.setTurnRight(Double.POSITIVE_INFINITY);
     this.setTurnGunLeft(Double.POSITIVE_INFINITY);
     this.setTurnRadarRight(Double.POSITIVE_INFINITY);
@@ -305,61 +771,83 @@ public final class WrathOfPele extends AdvancedRobot {
       this.setRadarColor(rainbow[(i + 2) % rainbow.length]);
       this.setBulletColor(rainbow[(i + 3) % rainbow.length]);
       this.setFire(Rules.MAX_BULLET_POWER);
-      this.execute();
+      super.execute();
       i++;
     }
 
   }
 
   /**
-   * Catches all custom events and forwards the events to the correct event handler.
+   * Catches all custom events and lets each condition forward itself to the correct event handler.
+   * 
+   * A condition that cannot dispatch itself has no handler, so it is reported and removed rather
+   * than firing unnoticed every tick.
    * 
    * @param evt The custom event that has been fired.
    */
+  @Override
   public void onCustomEvent(CustomEvent evt) {
+    long startTime = TurnProfiler.start();
     Condition condition = evt.getCondition();
 
-    switch (condition.getName()) {
-    case "WallProximityEvent":
-      onWallProximityEvent((WallProximityEvent) condition);
-      break;
-    case "FiredUponEvent":
-      onFiredUponEvent((FiredUponEvent) condition);
-      break;
-    default:
-      // This should not occur
-      break;
+    if (condition instanceof DispatchingCondition) {
+      ((DispatchingCondition) condition).dispatch(this);
     }
+    else {
+      this.out.println("No handler for custom event " + condition.getName() + ", removing it");
+      this.removeCustomEvent(condition);
+    }
+    profiler.record(TurnProfiler.Section.CUSTOM_EVENT, startTime);
+  }
+
+  /**
+   * Counts turns skipped because a handler ran past the turn's time limit.
+   * 
+   * @param evt The event fired when this robot skips a turn.
+   */
+  @Override
+  public void onSkippedTurn(SkippedTurnEvent evt) {
+    profiler.recordSkippedTurn();
+  }
+
+  /**
+   * Saves what was learned about every opponent and prints the round's turn time summary when
+   * profiling is enabled.
+   * 
+   * @param evt The event fired at the end of every round.
+   */
+  @Override
+  public void onRoundEnded(RoundEndedEvent evt) {
+    opponentStore.saveAll();
+    profiler.printSummary(this.out, evt.getRound());
   }
 
   /**
    * This event fires when this robot is too close to one of the walls.
    * 
-   * This event is added at the start of a round. If this event fires, this event is removed, and a
-   * <i>SafeProximityEvent</i> is added to alert us when we're at a safe distance from the wall.
+   * The sensor is created at the start of a round. If it fires, its trigger is switched to
+   * <i>SAFE_PROXIMITY</i> to alert us when we're at a safe distance from the wall, and back again
+   * once we are.
    * 
    * @param evt The event object associated with this event.
    */
-  private void onWallProximityEvent(WallProximityEvent evt) {
-    this.removeCustomEvent(evt);
-
+  @Override
+  public void onWallProximity(WallProximityEvent evt) {
     if (evt.getEventTrigger().equals(EventTrigger.WALL_PROXIMITY)) {
       this.nearWall = true;
       
       // Make sure we now wait on robot returning to safe distance
-      this.addCustomEvent(new WallProximityEvent(this,
-          WallProximityEvent.EventTrigger.SAFE_PROXIMITY, evt.getMinSafeDistance()));
+      evt.setEventTrigger(EventTrigger.SAFE_PROXIMITY);
       
-      // Move away from the wall
+      // Move away from the wall without blocking, wall smoothing steers the rest of the way
       this.switchForward();
-      this.ahead(evt.getMinSafeDistance() * 1.5);
+      this.move(evt.getMinSafeDistance() * 1.5, Priority.WALL);
      
     }
     else {
       this.nearWall = false;
       // Robot has returned to a safe distance, re-enable wall priority
-      this.addCustomEvent(new WallProximityEvent(this,
-          WallProximityEvent.EventTrigger.WALL_PROXIMITY, evt.getMinSafeDistance()));
+      evt.setEventTrigger(EventTrigger.WALL_PROXIMITY);
     }
   }
 
@@ -367,15 +855,15 @@ public final class WrathOfPele extends AdvancedRobot {
    * This event is fired when this robot detects an energy drop in the enemy robot.
    * 
    * This event causes this robot to switch direction and move a random distance as defensive
-   * movement.
+   * movement. In melee, minimum risk movement already keeps the robot moving, so it is ignored.
    * 
    * @param evt The event object associated with this event.
    */
-  private void onFiredUponEvent(FiredUponEvent evt) {
-    if (!nearWall) {
+  @Override
+  public void onFiredUpon(FiredUponEvent evt) {
+    if (!nearWall && !this.isMelee()) {
       this.switchForward();
-      this.moveInArc(random.nextInt(200) + 50);
-      this.execute();
+      this.moveInArc(random.nextInt(200) + 50, Priority.EVADE);
     }
   }
 }
@@ -0,0 +1,206 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ajc;
+
+import static org.junit.Assert.assertTrue;
+import robocode.control.events.RoundEndedEvent;
+import robocode.control.events.TurnEndedEvent;
+import robocode.control.snapshot.IRobotSnapshot;
+import robocode.control.testing.RobotTestBed;
+
+/**
+ * A test bed that checks WrathOfPele wins at least a given fraction of rounds, stopping the battle
+ * as soon as the answer is statistically clear.
+ * 
+ * After every round, Wald's sequential probability ratio test compares the hypothesis that the
+ * true win rate is <i>INDIFFERENCE</i> below the threshold with the hypothesis that it is
+ * <i>INDIFFERENCE</i> above it. Once either is accepted with error rates <i>ALPHA</i> and
+ * <i>BETA</i>, the battle is aborted and the verdict asserted. If <i>getNumRounds</i> rounds are
+ * played without a decision, the observed win rate is compared against the threshold directly.
+ * 
+ * Subclasses that override <i>onTurnEnded</i> must call the superclass method.
+ * 
+ * @author Anthony Christe
+ */
+public abstract class SequentialWinRateTestBed extends RobotTestBed {
+  /**
+   * Name prefix of WrathOfPele in turn snapshots.
+   */
+  private static final String ROBOT_NAME = "ajc.WrathOfPele";
+
+  /**
+   * Half the width of the win rates around the threshold that the test does not distinguish.
+   */
+  private static final double INDIFFERENCE = 0.15;
+
+  /**
+   * Probability of accepting a robot whose win rate is at the lower hypothesis or worse.
+   */
+  private static final double ALPHA = 0.05;
+
+  /**
+   * Probability of rejecting a robot whose win rate is at the upper hypothesis or better.
+   */
+  private static final double BETA = 0.05;
+
+  /**
+   * Verdicts of the sequential test.
+   */
+  private static enum Verdict {
+    /** The win rate is above the threshold. */
+    ACCEPTED,
+
+    /** The win rate is below the threshold. */
+    REJECTED,
+
+    /** Not enough rounds have been played to decide. */
+    UNDECIDED;
+  }
+
+  /**
+   * Robots in the last turn snapshot of the current round.
+   */
+  private IRobotSnapshot[] lastRobots;
+
+  /**
+   * The number of rounds WrathOfPele has won.
+   */
+  private int wins;
+
+  /**
+   * The number of rounds that have been played.
+   */
+  private int rounds;
+
+  /**
+   * Log-likelihood ratio of the upper hypothesis against the lower hypothesis.
+   */
+  private double logLikelihoodRatio;
+
+  /**
+   * The verdict reached so far.
+   */
+  private Verdict verdict;
+
+  /**
+   * The minimum fraction of rounds WrathOfPele is expected to win.
+   * 
+   * @return The win rate threshold between 0 and 1.
+   */
+  public abstract double getWinRateThreshold();
+
+  /**
+   * Resets the sequential test before the battle begins.
+   */
+  @Override
+  protected void runSetup() {
+    this.lastRobots = null;
+    this.wins = 0;
+    this.rounds = 0;
+    this.logLikelihoodRatio = 0.0;
+    this.verdict = Verdict.UNDECIDED;
+  }
+
+  /**
+   * Remembers the robots of the latest turn so the winner is known when the round ends.
+   * 
+   * @param event Info about the current state of the battle.
+   */
+  @Override
+  public void onTurnEnded(TurnEndedEvent event) {
+    this.lastRobots = event.getTurnSnapshot().getRobots();
+  }
+
+  /**
+   * Adds the finished round to the sequential test and aborts the battle once it is decided.
+   * 
+   * @param event Info about the round that ended.
+   */
+  @Override
+  public void onRoundEnded(RoundEndedEvent event) {
+    if (this.verdict != Verdict.UNDECIDED || this.lastRobots == null) {
+      return;
+    }
+
+    double lower = Math.max(0.01, this.getWinRateThreshold() - INDIFFERENCE);
+    double upper = Math.min(0.99, this.getWinRateThreshold() + INDIFFERENCE);
+    this.rounds++;
+    if (this.isWin(this.lastRobots)) {
+      this.wins++;
+      this.logLikelihoodRatio += Math.log(upper / lower);
+    }
+    else {
+      this.logLikelihoodRatio += Math.log((1 - upper) / (1 - lower));
+    }
+
+    if (this.logLikelihoodRatio >= Math.log((1 - BETA) / ALPHA)) {
+      this.verdict = Verdict.ACCEPTED;
+    }
+    else if (this.logLikelihoodRatio <= Math.log(BETA / (1 - ALPHA))) {
+      this.verdict = Verdict.REJECTED;
+    }
+
+    if (this.verdict != Verdict.UNDECIDED && this.rounds < this.getNumRounds()) {
+      // The engine waits for the battle thread to stop, so it can't be aborted from this thread.
+      new Thread("abort-battle") {
+        @Override
+        public void run() {
+          engine.abortCurrentBattle();
+        }
+      }.start();
+    }
+  }
+
+  /**
+   * Asserts the verdict of the sequential test after the battle ends.
+   */
+  @Override
+  protected void runTeardown() {
+    String summary = String.format("WrathOfPele won %d of %d rounds, threshold %.2f", this.wins,
+        this.rounds, this.getWinRateThreshold());
+    System.out.println(summary + ", verdict " + this.verdict);
+
+    assertTrue("Check WrathOfPele played at least one round: " + summary, this.rounds > 0);
+    if (this.verdict == Verdict.UNDECIDED) {
+      assertTrue("Check WrathOfPele winner: " + summary,
+          (double) this.wins / (double) this.rounds >= this.getWinRateThreshold());
+    }
+    else {
+      assertTrue("Check WrathOfPele winner: " + summary, this.verdict == Verdict.ACCEPTED);
+    }
+  }
+
+  /**
+   * Determines if WrathOfPele is the only robot left alive.
+   * 
+   * @param robots The robots in the final turn of a round.
+   * @return <i>true</i> if WrathOfPele won the round and <i>false</i> otherwise.
+   */
+  private boolean isWin(IRobotSnapshot[] robots) {
+    boolean alive = false;
+    for (IRobotSnapshot robot : robots) {
+      boolean dead = robot.getState().isDead();
+      if (robot.getName().startsWith(ROBOT_NAME)) {
+        alive = !dead;
+      }
+      else if (!dead) {
+        return false;
+      }
+    }
+    return alive;
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests that anti-gravity movement is pushed away from sources and walls and that sources fade.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestAntiGravityMovement {
+  /**
+   * Tests that the robot is pushed directly away from a nearby source.
+   */
+  @Test
+  public void testRepelledBySource() {
+    AntiGravityMovement movement = new AntiGravityMovement(2000, 2000);
+    movement.addSource("enemy", 1100, 1000, 10000, 1);
+    movement.choose(1000, 1000, 1);
+    assertTrue("Pushed west", movement.getDestinationX() < 1000);
+    assertEquals(1000, movement.getDestinationY(), 1.0);
+  }
+
+  /**
+   * Tests that without sources the walls and corners push the robot toward the middle.
+   */
+  @Test
+  public void testRepelledByWalls() {
+    AntiGravityMovement movement = new AntiGravityMovement(2000, 2000);
+    movement.choose(100, 150, 1);
+    assertTrue(movement.getDestinationX() > 100);
+    assertTrue(movement.getDestinationY() > 150);
+  }
+
+  /**
+   * Tests that deposits fade by the decay every tick.
+   */
+  @Test
+  public void testDecay() {
+    AntiGravityMovement movement = new AntiGravityMovement(2000, 2000);
+    movement.addSource("enemy", 500, 500, 100, 0);
+    movement.choose(1000, 1000, 10);
+    assertEquals(100 * Math.pow(0.95, 10), movement.getCellStrength(500, 500), 0.0001);
+
+    // Run long enough for the lazy scale to be brought back into range
+    for (long time = 100; time < 20000; time += 100) {
+      movement.addSource("enemy", 500, 500, 100, time);
+    }
+    assertTrue(movement.getCellStrength(500, 500) < 100 + 1);
+
+    // A long quiet spell fades everything away
+    movement.choose(1000, 1000, 40000);
+    assertEquals(0, movement.getCellStrength(500, 500), 0.0001);
+  }
+
+  /**
+   * Tests that two equal enemies push equally hard when one is scanned far more often.
+   */
+  @Test
+  public void testIndependentOfScanRate() {
+    AntiGravityMovement movement = new AntiGravityMovement(2000, 2000);
+    for (long time = 0; time <= 200; time++) {
+      movement.addSource("often", 500, 500, 100, time);
+      if (time % 10 == 0) {
+        movement.addSource("seldom", 1500, 1500, 100, time);
+      }
+    }
+    assertEquals(100, movement.getCellStrength(500, 500), 0.01);
+    assertEquals(movement.getCellStrength(500, 500), movement.getCellStrength(1500, 1500), 0.01);
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import ajc.CommandBuffer.Channel;
+import ajc.CommandBuffer.Priority;
+
+/**
+ * Tests that intents are resolved by priority and cleared once committed.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestCommandBuffer {
+  /**
+   * Tests that an empty channel returns the fallback value.
+   */
+  @Test
+  public void testEmptyChannelFallsBack() {
+    CommandBuffer commands = new CommandBuffer();
+    assertFalse(commands.has(Channel.DISTANCE));
+    assertEquals(42.0, commands.get(Channel.DISTANCE, 42.0), 0.0);
+  }
+
+  /**
+   * Tests that a higher priority intent wins no matter which is offered first.
+   */
+  @Test
+  public void testHigherPriorityWins() {
+    CommandBuffer commands = new CommandBuffer();
+    assertTrue(commands.offer(Channel.BODY_TURN, 1.0, Priority.ROUTINE));
+    assertTrue(commands.offer(Channel.BODY_TURN, -0.5, Priority.WALL));
+    assertFalse(commands.offer(Channel.BODY_TURN, 2.0, Priority.EVADE));
+    assertEquals(-0.5, commands.get(Channel.BODY_TURN, 0.0), 0.0);
+  }
+
+  /**
+   * Tests that an intent of equal priority replaces the earlier one.
+   */
+  @Test
+  public void testEqualPriorityReplaces() {
+    CommandBuffer commands = new CommandBuffer();
+    commands.offer(Channel.FIRE, 1.0, Priority.ENGAGE);
+    assertTrue(commands.offer(Channel.FIRE, 2.5, Priority.ENGAGE));
+    assertEquals(2.5, commands.get(Channel.FIRE, 0.0), 0.0);
+  }
+
+  /**
+   * Tests that channels are resolved independently of each other.
+   */
+  @Test
+  public void testChannelsIndependent() {
+    CommandBuffer commands = new CommandBuffer();
+    commands.offer(Channel.DISTANCE, 100.0, Priority.WALL);
+    assertTrue(commands.offer(Channel.GUN_TURN, 0.3, Priority.ROUTINE));
+    assertFalse(commands.has(Channel.RADAR_TURN));
+    assertEquals(0.3, commands.get(Channel.GUN_TURN, 0.0), 0.0);
+  }
+
+  /**
+   * Tests that clearing empties every channel and lets low priority intents in again.
+   */
+  @Test
+  public void testClear() {
+    CommandBuffer commands = new CommandBuffer();
+    commands.offer(Channel.DISTANCE, 100.0, Priority.WALL);
+    commands.clear();
+    assertFalse(commands.has(Channel.DISTANCE));
+    assertTrue(commands.offer(Channel.DISTANCE, -50.0, Priority.ROUTINE));
+    assertEquals(-50.0, commands.get(Channel.DISTANCE, 0.0), 0.0);
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Tests the ring buffer used to store enemy energies.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestEnergyHistory {
+
+  /**
+   * Tests that a capacity too small to compare two energies throws an exception.
+   */
+  @SuppressWarnings("unused")
+  @Test(expected = IllegalArgumentException.class)
+  public void testSmallCapacity() {
+    EnergyHistory history = new EnergyHistory(1);
+  }
+
+  /**
+   * Tests that the oldest energies are overwritten once the history is full.
+   */
+  @Test
+  public void testWrapAround() {
+    EnergyHistory history = new EnergyHistory(3);
+    for (int i = 1; i <= 5; i++) {
+      history.add(i);
+    }
+    assertEquals(3, history.size());
+    assertEquals(5, history.getLatest(), 0.01);
+    assertEquals(4, history.get(1), 0.01);
+    assertEquals(3, history.get(2), 0.01);
+  }
+
+  /**
+   * Tests that retaining the latest energy keeps only the most recent scan.
+   */
+  @Test
+  public void testRetainLatest() {
+    EnergyHistory history = new EnergyHistory(4);
+    history.add(100);
+    history.add(97);
+    history.retainLatest();
+    assertEquals(1, history.size());
+    assertEquals(97, history.getLatest(), 0.01);
+    history.add(95);
+    assertEquals(97, history.get(1), 0.01);
+  }
+
+  /**
+   * Tests that reading past the recorded energies throws an exception.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testReadPastSize() {
+    EnergyHistory history = new EnergyHistory();
+    history.add(100);
+    history.get(1);
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+import robocode.Rules;
+
+/**
+ * Tests that the energy ledger only attributes unexplained energy drops to firing.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestEnergyLedger {
+  /** Name of the enemy robot used in every test. */
+  private static final String ENEMY = "sample.Fire";
+
+  /**
+   * Records a scan of the enemy in the middle of an 800x600 battlefield.
+   * 
+   * @param ledger The ledger to record the scan in.
+   * @param energy The scanned energy.
+   * @return The inferred bullet power.
+   */
+  private static double scan(EnergyLedger ledger, double energy) {
+    return ledger.recordScan(ENEMY, energy, 0, 400, 300, 800, 600);
+  }
+
+  /**
+   * Tests that a plain energy drop is reported as a shot of the same power.
+   */
+  @Test
+  public void testShotDetected() {
+    EnergyLedger ledger = new EnergyLedger();
+    assertEquals(0, scan(ledger, 100), 0.001);
+    assertEquals(2, scan(ledger, 98), 0.001);
+    assertEquals(0, scan(ledger, 98), 0.001);
+  }
+
+  /**
+   * Tests that damage from our bullets and from ramming is not reported as a shot.
+   */
+  @Test
+  public void testOurDamageIgnored() {
+    EnergyLedger ledger = new EnergyLedger();
+    scan(ledger, 100);
+    ledger.recordBulletHit(ENEMY, 1.0);
+    assertEquals(0, scan(ledger, 100 - Rules.getBulletDamage(1.0)), 0.001);
+    ledger.recordRam(ENEMY);
+    assertEquals(0, scan(ledger, 96 - Rules.ROBOT_HIT_DAMAGE), 0.001);
+  }
+
+  /**
+   * Tests that a shot is still detected when the enemy also gained energy by hitting us.
+   */
+  @Test
+  public void testShotWithBulletBonus() {
+    EnergyLedger ledger = new EnergyLedger();
+    scan(ledger, 50);
+    ledger.recordHitByBullet(ENEMY, 3.0);
+    assertEquals(1.5, scan(ledger, 50 + Rules.getBulletHitBonus(3.0) - 1.5), 0.001);
+  }
+
+  /**
+   * Tests that an enemy stopping against a wall is charged for the wall hit instead of a shot.
+   */
+  @Test
+  public void testWallHitIgnored() {
+    EnergyLedger ledger = new EnergyLedger();
+    ledger.recordScan(ENEMY, 100, 8, 30, 300, 800, 600);
+    assertEquals(0, ledger.recordScan(ENEMY, 100 - Rules.getWallHitDamage(8), 0, 18, 300, 800,
+        600), 0.001);
+  }
+
+  /**
+   * Tests that a new round does not compare the enemy's fresh energy with the previous round's.
+   */
+  @Test
+  public void testResetRound() {
+    EnergyLedger ledger = new EnergyLedger();
+    scan(ledger, 100);
+    scan(ledger, 101.5);
+    ledger.recordBulletHit(ENEMY, 3.0);
+    ledger.resetRound();
+    assertEquals(0, scan(ledger, 99), 0.001);
+    assertEquals(1, ledger.getEnergies(ENEMY).size());
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests that shots are planned for the tick the gun cools and fired on that tick only.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestFirePipeline {
+  /**
+   * Tests the number of ticks until the gun is cool, including heats that don't divide evenly.
+   */
+  @Test
+  public void testTicksUntilCool() {
+    assertEquals(0, FirePipeline.getTicksUntilCool(0.0, 0.1));
+    assertEquals(1, FirePipeline.getTicksUntilCool(0.1, 0.1));
+    assertEquals(3, FirePipeline.getTicksUntilCool(0.3, 0.1));
+    double heat = 1.6;
+    for (int i = 0; i < 6; i++) {
+      heat -= 0.1;
+    }
+    assertEquals(10, FirePipeline.getTicksUntilCool(heat, 0.1));
+    assertEquals(2, FirePipeline.getTicksUntilCool(0.15, 0.1));
+    assertTrue(FirePipeline.isAimingTick(0.1, 0.1));
+    assertFalse(FirePipeline.isAimingTick(0.2, 0.1));
+  }
+
+  /**
+   * Tests that a planned shot is fired on the cool tick when the gun reached the planned angle.
+   */
+  @Test
+  public void testFiresPlannedShot() {
+    FirePipeline pipeline = new FirePipeline();
+    pipeline.plan(11, 1.0, 2.5, 300, "sample.Walls");
+    assertEquals(0.0, pipeline.fire(10, 0.1, 1.0), 0.0);
+    assertEquals(2.5, pipeline.fire(11, 0.0, 1.0 + 0.01), 0.0);
+    assertEquals("sample.Walls", pipeline.getPlannedTarget());
+    assertFalse(pipeline.isWasted(11, 0.0));
+    assertEquals("A planned shot is only fired once", 0.0, pipeline.fire(11, 0.0, 1.0), 0.0);
+  }
+
+  /**
+   * Tests that a shot is held when the gun could not turn close enough to the planned angle.
+   */
+  @Test
+  public void testHoldsWhenOffTarget() {
+    FirePipeline pipeline = new FirePipeline();
+    pipeline.plan(11, 1.0, 2.5, 300, "sample.Walls");
+    assertEquals(0.0, pipeline.fire(11, 0.0, 1.2), 0.0);
+    assertTrue(pipeline.isWasted(11, 0.0));
+  }
+
+  /**
+   * Tests that a plan for an earlier tick is not fired late and that a hot gun is never wasted.
+   */
+  @Test
+  public void testStalePlan() {
+    FirePipeline pipeline = new FirePipeline();
+    pipeline.plan(11, 1.0, 2.5, 300, "sample.Walls");
+    assertEquals(0.0, pipeline.fire(12, 0.0, 1.0), 0.0);
+    assertFalse(pipeline.isWasted(12, 0.3));
+  }
+}
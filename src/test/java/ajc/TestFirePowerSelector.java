@@ -0,0 +1,116 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import robocode.Bullet;
+
+/**
+ * Tests that bullet powers follow the hit rate, the distance and the enemy's energy.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestFirePowerSelector {
+  /**
+   * Creates one of our bullets.
+   * 
+   * @param id The unique id of the bullet.
+   * @param power The power of the bullet.
+   * @return The bullet.
+   */
+  private static Bullet bullet(int id, double power) {
+    return new Bullet(0, 0, 0, power, "ajc.WrathOfPele", null, true, id);
+  }
+
+  /**
+   * Tests the lowest power that destroys robots with little and much energy.
+   */
+  @Test
+  public void testKillPower() {
+    assertEquals(0.5, FirePowerSelector.getKillPower(2.0), 0.0001);
+    assertEquals(2.0, FirePowerSelector.getKillPower(10.0), 0.0001);
+    assertEquals(3.0, FirePowerSelector.getKillPower(100.0), 0.0001);
+  }
+
+  /**
+   * Tests that an enemy that is hit more often than a random gun would is fired at harder.
+   */
+  @Test
+  public void testHitsRaisePower() {
+    FirePowerSelector selector = new FirePowerSelector(800, 600);
+    double before = selector.getPower("sample.Walls", 450, 100);
+    for (int i = 0; i < 20; i++) {
+      Bullet shot = bullet(i, before);
+      selector.recordShot(shot, "sample.Walls", 450);
+      selector.recordHit(shot, "sample.Walls");
+    }
+    double after = selector.getPower("sample.Walls", 450, 100);
+
+    assertTrue("Power rises with the hit rate", after > before);
+    assertTrue("A reliable hit is fired hard", after >= 2.0);
+    assertEquals("Other distances are unaffected",
+        new FirePowerSelector(800, 600).getPower("sample.Walls", 150, 100),
+        selector.getPower("sample.Walls", 150, 100), 0.0001);
+  }
+
+  /**
+   * Tests that misses lower the estimated hit rate and hits on another robot don't count.
+   */
+  @Test
+  public void testMissesLowerHitRate() {
+    FirePowerSelector selector = new FirePowerSelector(800, 600);
+    double before = selector.getHitRate("sample.Walls", 300, 2.0);
+    for (int i = 0; i < 10; i++) {
+      Bullet shot = bullet(i, 2.0);
+      selector.recordShot(shot, "sample.Walls", 300);
+      if (i % 2 == 0) {
+        selector.recordMiss(shot);
+      }
+      else {
+        selector.recordHit(shot, "sample.Crazy");
+      }
+    }
+    assertTrue("Hit rate falls after misses",
+        selector.getHitRate("sample.Walls", 300, 2.0) < before);
+  }
+
+  /**
+   * Tests that close enemies are fired at harder than distant ones.
+   */
+  @Test
+  public void testCloseEnemiesGetMorePower() {
+    FirePowerSelector selector = new FirePowerSelector(800, 600);
+    assertTrue(selector.getPower("sample.Walls", 20, 100) >= 2.0);
+    assertTrue(selector.getPower("sample.Walls", 20, 100)
+        > selector.getPower("sample.Walls", 400, 100));
+    assertEquals("A distant enemy is only worth the weakest bullet", 0.1,
+        selector.getPower("sample.Walls", 700, 100), 0.0);
+  }
+
+  /**
+   * Tests that the power never exceeds what it takes to destroy the enemy.
+   */
+  @Test
+  public void testNoOverkill() {
+    FirePowerSelector selector = new FirePowerSelector(800, 600);
+    assertEquals(0.3, selector.getPower("sample.Walls", 20, 1.2), 0.0);
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ajc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests that the guess factor gun learns where an enemy moves and aims there.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestGuessFactorGun {
+  /** Name of the enemy robot used in every test. */
+  private static final String ENEMY = "sample.Walls";
+
+  /**
+   * Tests that the gun aims straight at an enemy it knows nothing about.
+   */
+  @Test
+  public void testHeadOnWithoutData() {
+    GuessFactorGun gun = new GuessFactorGun();
+    EnemyModel enemy = new EnemyModel(ENEMY);
+    enemy.update(0, 400, 500, Math.PI / 2, 8, 100, 400);
+    assertEquals(0, gun.getAimAngle(enemy, 400, 100, 3.0), 0.0001);
+  }
+
+  /**
+   * Tests that after an enemy drives clockwise at full speed, the gun leads it in that direction.
+   */
+  @Test
+  public void testLearnsLead() {
+    GuessFactorGun gun = new GuessFactorGun();
+    EnemyModel enemy = new EnemyModel(ENEMY);
+    enemy.update(0, 400, 500, Math.PI / 2, 8, 100, 400);
+    gun.fireWave(enemy, 400, 100, 0, 3.0, true);
+
+    // Drive east until the wave reaches the enemy
+    for (long time = 1; time < 60; time++) {
+      double x = 400 + 8 * time;
+      enemy.update(time, x, 500, Math.PI / 2, 8, 100, Math.hypot(x - 400, 400));
+      gun.update(enemy, time, 1000);
+    }
+
+    enemy.update(60, 400, 500, Math.PI / 2, 8, 100, 400);
+    double aim = gun.getAimAngle(enemy, 400, 100, 3.0);
+    assertTrue("Gun leads the enemy clockwise", aim > 0.3 && aim < Math.PI / 2);
+  }
+}
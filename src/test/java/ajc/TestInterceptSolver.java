@@ -0,0 +1,94 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ajc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import robocode.Rules;
+
+/**
+ * Tests the linear and circular intercept solutions.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestInterceptSolver {
+
+  /**
+   * Tests that a stationary target is aimed at directly.
+   */
+  @Test
+  public void testStationaryTarget() {
+    InterceptSolver solver = new InterceptSolver();
+    double angle = solver.solve(100, 100, 2.0, 400, 500, 0, 0, 0, 800, 600);
+    assertEquals(Math.atan2(300, 400), angle, 0.0001);
+    assertEquals(400, solver.getInterceptX(), 0.0001);
+  }
+
+  /**
+   * Tests that the bullet and a target moving in a straight line arrive at the same point.
+   */
+  @Test
+  public void testLinearTarget() {
+    InterceptSolver solver = new InterceptSolver();
+    solver.solve(400, 100, 3.0, 200, 400, Math.PI / 2, 8, 0, 800, 600);
+    double distance = Math.hypot(solver.getInterceptX() - 400, solver.getInterceptY() - 100);
+    double bulletTravel = solver.getFlightTicks() * Rules.getBulletSpeed(3.0);
+
+    assertEquals(200 + 8 * solver.getFlightTicks(), solver.getInterceptX(), 0.0001);
+    assertTrue("Bullet reaches the target", bulletTravel >= distance);
+    assertTrue("Bullet doesn't arrive a tick early",
+        bulletTravel - Rules.getBulletSpeed(3.0) < distance);
+  }
+
+  /**
+   * Tests that a target heading into a wall is stopped at the wall.
+   */
+  @Test
+  public void testTargetStopsAtWall() {
+    InterceptSolver solver = new InterceptSolver();
+    solver.solve(100, 100, 0.1, 700, 300, Math.PI / 2, 8, 0, 800, 600);
+    assertEquals(782, solver.getInterceptX(), 0.0001);
+  }
+
+  /**
+   * Tests that a turning target is led further around its circle than a linear one.
+   */
+  @Test
+  public void testCircularTarget() {
+    InterceptSolver solver = new InterceptSolver();
+    solver.solve(400, 100, 3.0, 400, 400, Math.PI / 2, 8, 0.1, 800, 600);
+    assertTrue("Turning target curves south", solver.getInterceptY() < 400);
+  }
+
+  /**
+   * Tests that aiming for a later firing tick first moves the target on to that tick.
+   */
+  @Test
+  public void testLeadsToFireTime() {
+    EnemyModel target = new EnemyModel("sample.Walls");
+    target.update(10, 200, 400, Math.PI / 2, 8, 100, 360);
+    InterceptSolver solver = new InterceptSolver();
+    double led = solver.solveCircular(400, 100, 2.0, target, 800, 600, 12);
+    int ledFlight = solver.getFlightTicks();
+    double moved = solver.solve(400, 100, 2.0, 216, 400, Math.PI / 2, 8, 0, 800, 600);
+
+    assertEquals(moved, led, 0.0001);
+    assertEquals(solver.getFlightTicks(), ledFlight);
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import static org.junit.Assert.assertTrue;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests that minimum risk movement keeps away from enemies, hits and walls.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestMinimumRiskMovement {
+  /**
+   * Tests that a point close to an enemy is riskier than one far from it.
+   */
+  @Test
+  public void testEnemyRisk() {
+    MinimumRiskMovement movement = new MinimumRiskMovement(new Random(1));
+    movement.addEnemy(600, 300, 100);
+    assertTrue(movement.getRisk(400, 300, 500, 300) > movement.getRisk(400, 300, 300, 300));
+
+    movement.recordHit(300, 300);
+    assertTrue(movement.getRisk(400, 300, 300, 300) > movement.getRisk(400, 300, 400, 150));
+  }
+
+  /**
+   * Tests that the chosen destination moves away from an enemy and stays inside the battlefield.
+   */
+  @Test
+  public void testChoose() {
+    MinimumRiskMovement movement = new MinimumRiskMovement(new Random(1));
+    for (int tick = 0; tick < 10; tick++) {
+      movement.clearEnemies();
+      movement.addEnemy(600, 300, 100);
+      movement.addEnemy(600, 500, 100);
+      movement.choose(400, 300, 800, 600);
+      assertTrue("Destination is away from the enemies", movement.getDestinationX() < 400);
+      assertTrue("Destination is clear of the wall sensor",
+          movement.getDestinationY() >= MinimumRiskMovement.WALL_MARGIN
+          && movement.getDestinationY() <= 600 - MinimumRiskMovement.WALL_MARGIN
+          && movement.getDestinationX() >= MinimumRiskMovement.WALL_MARGIN);
+      assertTrue(MinimumRiskMovement.WALL_MARGIN > WallProximityEvent.DEFAULT_MIN_SAFE_DISTANCE);
+    }
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests that the movement simulator follows Robocode's movement rules and avoids walls.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestMovementSimulator {
+  /**
+   * Tests that a robot accelerates by 1, decelerates by 2 and stops exactly at its distance.
+   */
+  @Test
+  public void testVelocity() {
+    assertEquals(1, MovementSimulator.getNewVelocity(0, 100), 0.0001);
+    assertEquals(8, MovementSimulator.getNewVelocity(8, 100), 0.0001);
+    assertEquals(6, MovementSimulator.getNewVelocity(8, -100), 0.0001);
+    assertEquals(-0.5, MovementSimulator.getNewVelocity(1, -100), 0.0001);
+    assertEquals(0, MovementSimulator.getNewVelocity(0, 0), 0.0001);
+
+    MovementSimulator simulator = new MovementSimulator();
+    simulator.set(400, 300, 0, 0, 0, 100);
+    for (int tick = 0; tick < 30; tick++) {
+      simulator.step();
+    }
+    assertEquals(400, simulator.getY(), 0.0001);
+    assertEquals(0, simulator.getVelocity(), 0.0001);
+  }
+
+  /**
+   * Tests that the body turns no faster than the turn rate allowed at its speed.
+   */
+  @Test
+  public void testTurnRate() {
+    MovementSimulator simulator = new MovementSimulator();
+    simulator.set(400, 300, 0, 8, Math.PI, 1000);
+    simulator.step();
+    assertEquals(Math.toRadians(4), simulator.getHeading(), 0.0001);
+  }
+
+  /**
+   * Tests that driving at a wall is predicted and that smoothing turns the path along it.
+   */
+  @Test
+  public void testWalls() {
+    MovementSimulator simulator = new MovementSimulator();
+    simulator.set(400, 500, 0, 8, 0, 1000);
+    assertEquals(11, simulator.predictWallHit(20, 800, 600));
+
+    simulator.set(400, 300, 0, 8, 0, 1000);
+    assertEquals(-1, simulator.predictWallHit(20, 800, 600));
+
+    double angle = MovementSimulator.smooth(400, 500, 0.1, 45, 800, 600);
+    assertTrue("Smoothed path bends east along the north wall", angle > 1.0 && angle < 2.0);
+  }
+}
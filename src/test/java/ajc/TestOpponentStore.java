@@ -0,0 +1,110 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+import org.junit.Test;
+import robocode.AdvancedRobot;
+
+/**
+ * Tests that opponent profiles survive being written and read back in the compact format.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestOpponentStore {
+  /** Name of the opponent used in every test. */
+  private static final String ENEMY = "sample.Walls";
+
+  /**
+   * Tests that every section of a profile is read back as it was written.
+   * 
+   * @throws IOException If the in-memory streams fail.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    OpponentStore.Profile profile = new OpponentStore.Profile(ENEMY);
+    profile.getGunStatistics()[42] = 3.5;
+    profile.addDanger(0.5);
+    profile.addFirePower(3.0);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OpponentStore.write(out, profile);
+    OpponentStore.Profile read =
+        OpponentStore.read(new ByteArrayInputStream(out.toByteArray()), ENEMY);
+
+    assertEquals(ENEMY, read.getName());
+    assertArrayEquals(profile.getGunStatistics(), read.getGunStatistics(), 0.0001);
+    assertArrayEquals(profile.getDangers(), read.getDangers(), 0.0001);
+    assertArrayEquals(profile.getFirePowers(), read.getFirePowers(), 0.0001);
+    assertEquals(1.0, read.getFirePowers()[OpponentStore.FIRE_POWER_BINS - 1], 0.0001);
+    assertTrue("Mostly empty profiles compress well", out.size() < 500);
+  }
+
+  /**
+   * Tests that files written in another version of the format are ignored.
+   * 
+   * @throws IOException If the in-memory streams fail.
+   */
+  @Test
+  public void testRejectsOtherVersion() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (DataOutputStream data = new DataOutputStream(new GZIPOutputStream(out))) {
+      data.writeInt(OpponentStore.MAGIC);
+      data.writeByte(OpponentStore.VERSION + 1);
+      data.writeUTF(ENEMY);
+    }
+    assertNull(OpponentStore.read(new ByteArrayInputStream(out.toByteArray()), ENEMY));
+  }
+
+  /**
+   * Tests that copies of a robot share one file and that unsafe characters are replaced.
+   */
+  @Test
+  public void testFileName() {
+    assertEquals("sample.Walls.gz", OpponentStore.getFileName("sample.Walls (2)"));
+    assertEquals("ajc.Foo_1.0_.gz", OpponentStore.getFileName("ajc.Foo 1.0*"));
+  }
+
+  /**
+   * Tests that copies of the same robot share one profile, and so one set of gun statistics.
+   */
+  @Test
+  public void testCopiesShareProfile() {
+    final File missing = new File(System.getProperty("java.io.tmpdir"), "ajc-missing-profile.gz");
+    OpponentStore store = new OpponentStore(new AdvancedRobot() {
+      @Override
+      public File getDataFile(String filename) {
+        return missing;
+      }
+    });
+    OpponentStore.Profile first = store.getProfile(ENEMY + " (1)");
+    assertSame(first, store.getProfile(ENEMY + " (2)"));
+    assertSame(first.getGunStatistics(), store.getProfile(ENEMY).getGunStatistics());
+  }
+}
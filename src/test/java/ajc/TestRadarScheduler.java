@@ -0,0 +1,93 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import static org.junit.Assert.assertEquals;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+/**
+ * Tests that the radar spins, locks and sweeps as the number of enemies requires.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestRadarScheduler {
+  /**
+   * Adds an enemy scanned at a given time and position to a map of enemies.
+   * 
+   * @param enemies The map to add the enemy to.
+   * @param name The name of the enemy.
+   * @param time The time of the enemy's last scan.
+   * @param x The x-coordinate of the enemy.
+   * @param y The y-coordinate of the enemy.
+   */
+  private static void scan(Map<String, EnemyModel> enemies, String name, long time, double x,
+      double y) {
+    EnemyModel enemy = new EnemyModel(name);
+    enemy.update(time, x, y, 0, 0, 100, Math.hypot(x - 400, y - 300));
+    enemies.put(name, enemy);
+  }
+
+  /**
+   * Tests that the radar spins while some enemies have not been scanned.
+   */
+  @Test
+  public void testSpinsUntilAllKnown() {
+    Map<String, EnemyModel> enemies = new HashMap<>();
+    scan(enemies, "sample.Walls", 10, 400, 500);
+    assertEquals(Math.PI, new RadarScheduler().getTurn(400, 300, 0, 2, enemies, null, 10), 0.0001);
+  }
+
+  /**
+   * Tests that a single freshly scanned enemy is locked onto with overshoot.
+   */
+  @Test
+  public void testLocksOneEnemy() {
+    Map<String, EnemyModel> enemies = new HashMap<>();
+    scan(enemies, "sample.Walls", 10, 500, 300);
+    double turn = new RadarScheduler().getTurn(400, 300, Math.PI / 2 - 0.1, 1, enemies, null, 11);
+    assertEquals(0.2, turn, 0.0001);
+  }
+
+  /**
+   * Tests that in melee the radar sweeps toward the enemy whose scan is the oldest.
+   */
+  @Test
+  public void testSweepsToOldest() {
+    Map<String, EnemyModel> enemies = new HashMap<>();
+    scan(enemies, "sample.Walls", 20, 500, 300);
+    scan(enemies, "sample.Crazy", 12, 300, 300);
+    double turn = new RadarScheduler().getTurn(400, 300, 0, 2, enemies, null, 21);
+    assertEquals(-Math.PI / 2 - Math.PI / 8, turn, 0.0001);
+  }
+
+  /**
+   * Tests that in melee the radar locks onto a focused enemy instead of sweeping.
+   */
+  @Test
+  public void testLocksFocus() {
+    Map<String, EnemyModel> enemies = new HashMap<>();
+    scan(enemies, "sample.Walls", 20, 500, 300);
+    scan(enemies, "sample.Crazy", 12, 300, 300);
+    double turn = new RadarScheduler().getTurn(400, 300, Math.PI / 2 - 0.1, 2, enemies,
+        enemies.get("sample.Walls"), 21);
+    assertEquals(0.2, turn, 0.0001);
+  }
+}
@@ -18,6 +18,7 @@
 package ajc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
 /**
@@ -49,4 +50,60 @@ public class TestRobotUtilities {
     assertEquals(90, RobotUtilities.getOppositeAngleDegrees(270), 0.1);
   }
 
+  /**
+   * Tests that the table based sine and cosine stay within their documented error of Math.
+   */
+  @Test
+  public void testSinCosError() {
+    double maxError = 0;
+    for (double angle = -20.0; angle <= 20.0; angle += 0.0007) {
+      maxError = Math.max(maxError, Math.abs(RobotUtilities.sin(angle) - Math.sin(angle)));
+      maxError = Math.max(maxError, Math.abs(RobotUtilities.cos(angle) - Math.cos(angle)));
+    }
+    assertTrue("Sine and cosine error " + maxError, maxError < RobotUtilities.TRIG_TABLE_MAX_ERROR);
+  }
+
+  /**
+   * Tests that tiny negative angles, which round to the very end of the sine table, stay inside
+   * the table.
+   */
+  @Test
+  public void testSinCosTinyNegativeAngles() {
+    double[] angles = { -Math.ulp(1.0), -1e-17, -1e-300, -0.0, -Math.PI / 2 - Math.ulp(1.0) };
+    for (double angle : angles) {
+      assertEquals("sin(" + angle + ")", Math.sin(angle), RobotUtilities.sin(angle),
+          RobotUtilities.TRIG_TABLE_MAX_ERROR);
+      assertEquals("cos(" + angle + ")", Math.cos(angle), RobotUtilities.cos(angle),
+          RobotUtilities.TRIG_TABLE_MAX_ERROR);
+    }
+  }
+
+  /**
+   * Tests that the table based arctangent stays within its documented error of Math in every
+   * quadrant, including the axes.
+   */
+  @Test
+  public void testAtan2Error() {
+    double maxError = 0;
+    for (double x = -500.0; x <= 500.0; x += 3.7) {
+      for (double y = -500.0; y <= 500.0; y += 4.1) {
+        maxError = Math.max(maxError, Math.abs(RobotUtilities.atan2(y, x) - Math.atan2(y, x)));
+      }
+    }
+    assertTrue("Arctangent error " + maxError, maxError < RobotUtilities.TRIG_TABLE_MAX_ERROR);
+    assertEquals(0, RobotUtilities.atan2(0, 5), 0);
+    assertEquals(Math.PI / 2, RobotUtilities.atan2(5, 0), RobotUtilities.TRIG_TABLE_MAX_ERROR);
+    assertEquals(Math.PI, RobotUtilities.atan2(0, -5), RobotUtilities.TRIG_TABLE_MAX_ERROR);
+  }
+
+  /**
+   * Tests that absolute bearings follow Robocode's clockwise from north convention.
+   */
+  @Test
+  public void testAbsoluteBearing() {
+    double tolerance = RobotUtilities.TRIG_TABLE_MAX_ERROR;
+    assertEquals(0, RobotUtilities.getAbsoluteBearing(100, 100, 100, 200), tolerance);
+    assertEquals(Math.PI / 2, RobotUtilities.getAbsoluteBearing(100, 100, 200, 100), tolerance);
+    assertEquals(-Math.PI / 2, RobotUtilities.getAbsoluteBearing(100, 100, 0, 100), tolerance);
+  }
 }
@@ -0,0 +1,99 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Tests that sensors are evaluated against a snapshot and dispatched to their typed callbacks.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestSensors implements SensorListener {
+  /** The last wall proximity sensor dispatched to this listener. */
+  private WallProximityEvent wallProximity;
+
+  /** The last fired upon sensor dispatched to this listener. */
+  private FiredUponEvent firedUpon;
+
+  /**
+   * Records the dispatched wall proximity sensor.
+   * 
+   * @param evt The sensor that fired.
+   */
+  @Override
+  public void onWallProximity(WallProximityEvent evt) {
+    this.wallProximity = evt;
+  }
+
+  /**
+   * Records the dispatched fired upon sensor.
+   * 
+   * @param evt The sensor that fired.
+   */
+  @Override
+  public void onFiredUpon(FiredUponEvent evt) {
+    this.firedUpon = evt;
+  }
+
+  /**
+   * Tests that the wall proximity sensor fires near a wall and, once its trigger is switched, when
+   * the robot is back at a safe distance.
+   */
+  @Test
+  public void testWallProximity() {
+    WallProximityEvent sensor =
+        new WallProximityEvent(null, WallProximityEvent.EventTrigger.WALL_PROXIMITY, 40.0);
+    SensorSnapshot snapshot = new SensorSnapshot();
+    snapshot.set(400, 300, 0, 8, 800, 600, 1);
+    assertFalse(sensor.sense(snapshot));
+
+    snapshot.set(20, 300, 0, 8, 800, 600, 2);
+    assertTrue(sensor.sense(snapshot));
+    sensor.dispatch(this);
+    assertSame(sensor, this.wallProximity);
+
+    sensor.setEventTrigger(WallProximityEvent.EventTrigger.SAFE_PROXIMITY);
+    assertFalse(sensor.sense(snapshot));
+    snapshot.set(400, 300, 0, 8, 800, 600, 3);
+    assertTrue(sensor.sense(snapshot));
+  }
+
+  /**
+   * Tests that the fired upon sensor reports the newest queued shot once.
+   */
+  @Test
+  public void testFiredUpon() {
+    FiredUponEvent sensor = new FiredUponEvent();
+    SensorSnapshot snapshot = new SensorSnapshot();
+    sensor.enqueue("sample.Fire", 1.0);
+    sensor.enqueue("sample.Fire", 3.0);
+    assertTrue(sensor.sense(snapshot));
+    assertFalse(sensor.sense(snapshot));
+
+    sensor.dispatch(this);
+    assertSame(sensor, this.firedUpon);
+    assertEquals(3.0, this.firedUpon.getBulletPower(), 0.0001);
+    assertEquals(2, this.firedUpon.getDrainedCount());
+  }
+}
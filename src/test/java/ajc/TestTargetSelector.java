@@ -0,0 +1,84 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+/**
+ * Tests that the target selector prefers close, weak enemies without thrashing between them.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestTargetSelector {
+  /**
+   * Creates a model of an enemy scanned at a given distance and energy.
+   * 
+   * @param name The name of the enemy.
+   * @param distance The distance to the enemy.
+   * @param energy The energy of the enemy.
+   * @return The model of the enemy.
+   */
+  private static EnemyModel enemy(String name, double distance, double energy) {
+    EnemyModel enemy = new EnemyModel(name);
+    enemy.update(1, 0, distance, 0, 0, energy, distance);
+    return enemy;
+  }
+
+  /**
+   * Tests that the closest enemy is chosen and that a slightly better enemy does not replace it.
+   */
+  @Test
+  public void testHysteresis() {
+    TargetSelector selector = new TargetSelector();
+    selector.update(enemy("sample.Walls", 400, 100));
+    selector.update(enemy("sample.Crazy", 200, 100));
+    assertEquals("sample.Crazy", selector.getTarget());
+
+    // Slightly closer than the target is not enough to switch
+    selector.update(enemy("sample.Walls", 190, 100));
+    assertEquals("sample.Crazy", selector.getTarget());
+
+    // Much closer is
+    selector.update(enemy("sample.Walls", 100, 100));
+    assertEquals("sample.Walls", selector.getTarget());
+  }
+
+  /**
+   * Tests that removing enemies keeps the best remaining enemy on top of the heap.
+   */
+  @Test
+  public void testRemove() {
+    TargetSelector selector = new TargetSelector();
+    for (int i = 1; i <= 20; i++) {
+      selector.update(enemy("sample.Enemy" + i, 50 * i, 100));
+    }
+    assertEquals("sample.Enemy1", selector.getTarget());
+    selector.remove("sample.Enemy1");
+    assertEquals("sample.Enemy2", selector.getTarget());
+    selector.remove("sample.Enemy7");
+    selector.remove("sample.Enemy2");
+    assertEquals("sample.Enemy3", selector.getTarget());
+    assertEquals(0, selector.getScore("sample.Enemy7"), 0.0);
+
+    selector.resetRound();
+    assertNull(selector.getTarget());
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import org.junit.Test;
+
+/**
+ * Tests that the turn profiler buckets samples, counts skipped and wasted ticks and resets.
+ *
+ * Profiling is switched on before the profiler class is loaded, which relies on surefire running
+ * every test class in its own JVM.
+ *
+ * @author Anthony Christe
+ *
+ */
+public class TestTurnProfiler {
+  static {
+    System.setProperty("ajc.profile", "true");
+  }
+
+  /**
+   * Creates an empty profiler after checking that profiling is on.
+   *
+   * @return The profiler.
+   */
+  private static TurnProfiler createProfiler() {
+    assertTrue("TurnProfiler was loaded before ajc.profile was set", TurnProfiler.ENABLED);
+    return new TurnProfiler();
+  }
+
+  /**
+   * Tests that each sample lands in the power-of-two bucket of its duration.
+   */
+  @Test
+  public void testHistogramBuckets() {
+    TurnProfiler profiler = createProfiler();
+    // 20 us is between 2^14 and 2^15 ns, 1.5 ms is between 2^20 and 2^21 ns
+    profiler.record(TurnProfiler.Section.RUN_LOOP, System.nanoTime() - 20000);
+    profiler.record(TurnProfiler.Section.RUN_LOOP, System.nanoTime() - 1500000);
+    profiler.record(TurnProfiler.Section.SCANNED_ROBOT, System.nanoTime() - 20000);
+    assertEquals(2, profiler.getSamples(TurnProfiler.Section.RUN_LOOP));
+    assertEquals(1, profiler.getBucketCount(TurnProfiler.Section.RUN_LOOP, 14));
+    assertEquals(1, profiler.getBucketCount(TurnProfiler.Section.RUN_LOOP, 20));
+    assertEquals(1, profiler.getBucketCount(TurnProfiler.Section.SCANNED_ROBOT, 14));
+    assertEquals(0, profiler.getSamples(TurnProfiler.Section.CUSTOM_EVENT));
+
+    // Durations past the last bucket are kept in it
+    profiler.record(TurnProfiler.Section.RUN_LOOP, System.nanoTime() - (1L << 50));
+    assertEquals(1,
+        profiler.getBucketCount(TurnProfiler.Section.RUN_LOOP, TurnProfiler.BUCKETS - 1));
+  }
+
+  /**
+   * Tests that skipped turns and wasted cool ticks are counted.
+   */
+  @Test
+  public void testCounters() {
+    TurnProfiler profiler = createProfiler();
+    profiler.recordSkippedTurn();
+    profiler.recordSkippedTurn();
+    profiler.recordWastedCoolTick();
+    assertEquals(2, profiler.getSkippedTurns());
+    assertEquals(1, profiler.getWastedCoolTicks());
+  }
+
+  /**
+   * Tests that printing a round's summary starts the next round from nothing.
+   */
+  @Test
+  public void testResetBetweenRounds() {
+    TurnProfiler profiler = createProfiler();
+    profiler.record(TurnProfiler.Section.RUN_LOOP, System.nanoTime() - 20000);
+    profiler.recordSkippedTurn();
+    profiler.recordWastedCoolTick();
+
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    profiler.printSummary(new PrintStream(buffer, true), 1);
+    String summary = buffer.toString();
+    assertTrue(summary.contains("skipped turns = 1, wasted cool ticks = 1"));
+    assertTrue(summary.contains("RUN_LOOP"));
+
+    assertEquals(0, profiler.getSamples(TurnProfiler.Section.RUN_LOOP));
+    assertEquals(0, profiler.getBucketCount(TurnProfiler.Section.RUN_LOOP, 14));
+    assertEquals(0, profiler.getSkippedTurns());
+    assertEquals(0, profiler.getWastedCoolTicks());
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package ajc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+import ajc.VirtualGunArray.Gun;
+
+/**
+ * Tests that virtual bullets are resolved against their targets and pooled.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestVirtualGunArray {
+  /**
+   * Fires a virtual volley at an enemy moving east at full speed and advances until it resolves.
+   * 
+   * @param guns The array under test.
+   * @param enemies The enemies known to the array, to which the enemy is added.
+   * @param start The tick the enemy is first scanned on.
+   */
+  private static void fireAtMovingEnemy(VirtualGunArray guns, Map<String, EnemyModel> enemies,
+      long start) {
+    EnemyModel enemy = new EnemyModel("sample.Walls");
+    enemies.put("sample.Walls", enemy);
+    double x = 200;
+    enemy.update(start, x, 500, Math.PI / 2, 8, 100, 400);
+    guns.aim(enemy, 400, 100, 2.0, start, 800, 600);
+    guns.fire("sample.Walls", 400, 100, start, 2.0);
+    for (long time = start + 1; guns.size() > 0; time++) {
+      x += 8;
+      enemy.update(time, x, 500, Math.PI / 2, 8, 100, 400);
+      guns.advance(time, enemies);
+    }
+  }
+
+  /**
+   * Tests that an enemy never fired at is aimed at with the default gun.
+   */
+  @Test
+  public void testDefaultGun() {
+    VirtualGunArray guns = new VirtualGunArray(new GuessFactorGun(), new InterceptSolver());
+    assertEquals(VirtualGunArray.DEFAULT_GUN, guns.getBestGun("sample.Walls"));
+  }
+
+  /**
+   * Tests that leading guns beat head-on aiming against an enemy moving in a straight line.
+   */
+  @Test
+  public void testLeadingGunsWin() {
+    VirtualGunArray guns = new VirtualGunArray(new GuessFactorGun(), new InterceptSolver());
+    Map<String, EnemyModel> enemies = new HashMap<>();
+    fireAtMovingEnemy(guns, enemies, 10);
+
+    assertEquals(0.0, guns.getHitRate("sample.Walls", Gun.HEAD_ON), 0.0);
+    assertEquals(1.0, guns.getHitRate("sample.Walls", Gun.LINEAR), 0.0);
+    assertEquals(1.0, guns.getHitRate("sample.Walls", Gun.CIRCULAR), 0.0);
+    assertTrue(guns.getBestGun("sample.Walls") != Gun.HEAD_ON);
+  }
+
+  /**
+   * Tests that nothing is fired for an enemy other than the one most recently aimed at.
+   */
+  @Test
+  public void testFiresOnlyAtAimedTarget() {
+    VirtualGunArray guns = new VirtualGunArray(new GuessFactorGun(), new InterceptSolver());
+    EnemyModel enemy = new EnemyModel("sample.Walls");
+    enemy.update(10, 400, 500, 0, 0, 100, 400);
+    guns.aim(enemy, 400, 100, 2.0, 10, 800, 600);
+    guns.fire("sample.Crazy", 400, 100, 10, 2.0);
+    assertEquals(0, guns.size());
+    guns.fire("sample.Walls", 400, 100, 10, 2.0);
+    assertEquals(Gun.values().length, guns.size());
+  }
+
+  /**
+   * Tests that a full pool drops its oldest bullets and that dead targets' bullets are dropped.
+   */
+  @Test
+  public void testPoolAndDeadTargets() {
+    VirtualGunArray guns = new VirtualGunArray(new GuessFactorGun(), new InterceptSolver(), 6);
+    Map<String, EnemyModel> enemies = new HashMap<>();
+    EnemyModel enemy = new EnemyModel("sample.Walls");
+    enemies.put("sample.Walls", enemy);
+    enemy.update(10, 400, 500, 0, 0, 100, 400);
+    guns.aim(enemy, 400, 100, 2.0, 10, 800, 600);
+    guns.fire("sample.Walls", 400, 100, 10, 2.0);
+    guns.fire("sample.Walls", 400, 100, 11, 2.0);
+    assertEquals(6, guns.size());
+
+    enemy.reset();
+    guns.advance(12, enemies);
+    assertEquals(0, guns.size());
+    assertEquals("Dropped bullets are not scored", 0.0,
+        guns.getHitRate("sample.Walls", Gun.HEAD_ON), 0.0);
+  }
+}
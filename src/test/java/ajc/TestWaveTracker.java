@@ -0,0 +1,74 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ajc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+import robocode.Rules;
+
+/**
+ * Tests that waves are spawned, expired and recycled by the wave tracker.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class TestWaveTracker {
+
+  /**
+   * Tests that a wave travels at the bullet's speed and expires once it passes the target.
+   */
+  @Test
+  public void testWaveExpires() {
+    WaveTracker tracker = new WaveTracker(4);
+    Wave wave = tracker.spawn(100, 100, 10, 3.0, "sample.Fire");
+    assertEquals(Rules.getBulletSpeed(3.0) * 5, wave.getRadius(15), 0.001);
+
+    // The target is 200 pixels away, so an 11 pixel per tick bullet needs about 21 ticks
+    tracker.advance(100, 300, 20);
+    assertEquals(1, tracker.size());
+    tracker.advance(100, 300, 40);
+    assertEquals(0, tracker.size());
+  }
+
+  /**
+   * Tests that the oldest wave is recycled once every wave in the pool is in flight.
+   */
+  @Test
+  public void testPoolRecycled() {
+    WaveTracker tracker = new WaveTracker(2);
+    Wave first = tracker.spawn(0, 0, 1, 1.0, "a");
+    tracker.spawn(0, 0, 2, 1.0, "b");
+    Wave third = tracker.spawn(0, 0, 3, 1.0, "c");
+
+    assertSame(first, third);
+    assertEquals(2, tracker.size());
+    assertEquals("b", tracker.get(0).getShooter());
+    assertEquals("c", tracker.get(1).getShooter());
+  }
+
+  /**
+   * Tests that the closest wave is the one that will reach the target first.
+   */
+  @Test
+  public void testClosestWave() {
+    WaveTracker tracker = new WaveTracker();
+    tracker.spawn(0, 0, 0, 3.0, "slow");
+    tracker.spawn(0, 0, 0, 0.1, "fast");
+    assertEquals("fast", tracker.getClosestWave(0, 500, 10).getShooter());
+  }
+}
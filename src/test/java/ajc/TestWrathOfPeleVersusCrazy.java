@@ -17,12 +17,6 @@
 
 package ajc;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
-import robocode.BattleResults;
-import robocode.control.events.BattleCompletedEvent;
-import robocode.control.testing.RobotTestBed;
-
 /**
  * An acceptance test for WrathOfPele versus Crazy.
  * 
@@ -31,7 +25,7 @@ import robocode.control.testing.RobotTestBed;
  * 
  * @author Anthony Christe
  */
-public class TestWrathOfPeleVersusCrazy extends RobotTestBed {
+public class TestWrathOfPeleVersusCrazy extends SequentialWinRateTestBed {
   /**
    * Specifies that Crazy and WrathOfPele are to be matched up in this test case.
    * 
@@ -43,9 +37,9 @@ public class TestWrathOfPeleVersusCrazy extends RobotTestBed {
   }
 
   /**
-   * This test runs for 20 rounds.
+   * This test runs for at most 20 rounds, stopping early once the win rate is clear.
    * 
-   * @return The number of rounds.
+   * @return The maximum number of rounds.
    */
   @Override
   public int getNumRounds() {
@@ -53,22 +47,12 @@ public class TestWrathOfPeleVersusCrazy extends RobotTestBed {
   }
 
   /**
-   * The actual test, which asserts that WrathOfPele has won 70% of rounds against Crazy.
+   * The actual test, which asserts that WrathOfPele wins 70% of rounds against Crazy.
    * 
-   * @param event Details about the completed battle.
+   * @return The minimum fraction of rounds WrathOfPele must win.
    */
   @Override
-  public void onBattleCompleted(BattleCompletedEvent event) {
-    // Return the results in order of getRobotNames.
-    BattleResults[] battleResults = event.getIndexedResults();
-    // Sanity check that results[0] is WrathOfPele
-    BattleResults wrathOfPeleResults = battleResults[0];
-    String robotName = wrathOfPeleResults.getTeamLeaderName();
-    assertEquals("Check that results[1] is WrathOfPele", "ajc.WrathOfPele*", robotName);
-
-    // Check to make sure WrathOfPele wins 70% percent of the rounds.
-    assertTrue("Check WrathOfPele winner", 
-        (double) wrathOfPeleResults.getFirsts() / (double) getNumRounds() >= .70);
+  public double getWinRateThreshold() {
+    return .70;
   }
-
 }
@@ -0,0 +1,310 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ajc.control;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Battles WrathOfPele against a matrix of opponents and battlefield sizes from the command line.
+ * 
+ * Battles are spread across a pool of BattleWorker processes, each with its own RobocodeEngine,
+ * and every battle's results are appended to the CSV file as soon as it finishes. If a worker
+ * dies, the battle it was running is handed to another worker and the runner exits with a non-zero
+ * status. The runner lives in src/tools/java, outside the robot, and is run through the battles
+ * profile:
+ * 
+ * <pre>
+ * mvn -Pbattles test-compile exec:exec -Dbattles.args="-home /path/to/robocode
+ *     -opponents sample.Walls,sample.Crazy (or -opponents @opponents.txt)
+ *     [-robot ajc.WrathOfPele*] [-rounds 20] [-fields 800x600,1200x1200]
+ *     [-workers &lt;cores&gt;] [-out results.csv]"
+ * </pre>
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class BatchBattleRunner {
+  /**
+   * The header of the CSV file, matching the rows produced by BattleWorker.
+   */
+  public static final String CSV_HEADER = "opponent,width,height,rounds,firsts,opponent_firsts,"
+      + "score,opponent_score,survival,opponent_survival,bullet_damage,opponent_bullet_damage";
+
+  /**
+   * The Robocode installation directory.
+   */
+  private File robocodeHome;
+
+  /**
+   * The name of the robot being evaluated.
+   */
+  private String robot = "ajc.WrathOfPele*";
+
+  /**
+   * The opponents to battle.
+   */
+  private final List<String> opponents = new ArrayList<>();
+
+  /**
+   * The battlefield sizes to battle on, as {width, height} pairs.
+   */
+  private final List<int[]> fields = new ArrayList<>();
+
+  /**
+   * The number of rounds in every battle.
+   */
+  private int rounds = 20;
+
+  /**
+   * The number of worker processes.
+   */
+  private int workers = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * The CSV file results are written to.
+   */
+  private File output = new File("results.csv");
+
+  /**
+   * Parses the command line.
+   * 
+   * @param args The command line arguments.
+   * @throws IOException If the opponent list file cannot be read.
+   */
+  public BatchBattleRunner(String[] args) throws IOException {
+    for (int i = 0; i < args.length; i += 2) {
+      if (i + 1 == args.length) {
+        throw new IllegalArgumentException("Missing value for option " + args[i]);
+      }
+      String value = args[i + 1];
+      switch (args[i]) {
+      case "-home":
+        this.robocodeHome = new File(value);
+        break;
+      case "-robot":
+        this.robot = value;
+        break;
+      case "-opponents":
+        this.parseOpponents(value);
+        break;
+      case "-rounds":
+        this.rounds = Integer.parseInt(value);
+        break;
+      case "-fields":
+        this.parseFields(value);
+        break;
+      case "-workers":
+        this.workers = Integer.parseInt(value);
+        break;
+      case "-out":
+        this.output = new File(value);
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown option " + args[i]);
+      }
+    }
+
+    if (this.robocodeHome == null || this.opponents.isEmpty()) {
+      throw new IllegalArgumentException("Both -home and -opponents are required");
+    }
+    if (this.fields.isEmpty()) {
+      this.fields.add(new int[] { 800, 600 });
+    }
+  }
+
+  /**
+   * Runs every battle and writes the results.
+   * 
+   * @return <i>true</i> if every worker survived and every battle was run, <i>false</i> otherwise.
+   * @throws IOException If the results file cannot be written.
+   * @throws InterruptedException If interrupted while waiting for the workers.
+   */
+  public boolean run() throws IOException, InterruptedException {
+    final ConcurrentLinkedQueue<String> jobs = new ConcurrentLinkedQueue<>();
+    for (String opponent : this.opponents) {
+      for (int[] field : this.fields) {
+        jobs.add(opponent + ";" + field[0] + ";" + field[1]);
+      }
+    }
+    final int total = jobs.size();
+
+    final PrintWriter csv = new PrintWriter(new OutputStreamWriter(
+        new FileOutputStream(this.output), Charset.forName("UTF-8")));
+    csv.println(CSV_HEADER);
+    csv.flush();
+
+    final AtomicBoolean workerDied = new AtomicBoolean(false);
+    List<Thread> drivers = new ArrayList<>();
+    for (int i = 0; i < Math.min(this.workers, total); i++) {
+      final Process process = this.startWorker();
+      Thread driver = new Thread("battle-worker-" + i) {
+        @Override
+        public void run() {
+          if (!drive(process, jobs, csv)) {
+            workerDied.set(true);
+          }
+        }
+      };
+      driver.start();
+      drivers.add(driver);
+    }
+
+    for (Thread driver : drivers) {
+      driver.join();
+    }
+    csv.close();
+
+    if (!jobs.isEmpty()) {
+      System.err.println(jobs.size() + " battles were not run because their workers died");
+    }
+    return !workerDied.get() && jobs.isEmpty();
+  }
+
+  /**
+   * Feeds battles to one worker process and records its answers until no battles remain.
+   * 
+   * If the worker dies, the battle it was running is put back on the queue for another worker.
+   * 
+   * @param process The worker process.
+   * @param jobs The battles that have not been started yet.
+   * @param csv The writer results are appended to.
+   * @return <i>true</i> if the worker answered every battle it was given, <i>false</i> if it died.
+   */
+  private boolean drive(Process process, ConcurrentLinkedQueue<String> jobs, PrintWriter csv) {
+    String job = null;
+    try (PrintStream toWorker = new PrintStream(process.getOutputStream(), true, "UTF-8");
+        BufferedReader fromWorker = new BufferedReader(new InputStreamReader(
+            process.getInputStream(), "UTF-8"))) {
+      while ((job = jobs.poll()) != null) {
+        toWorker.println(job);
+        String answer = fromWorker.readLine();
+        if (answer == null) {
+          System.err.println("Worker exited before finishing " + job);
+          jobs.add(job);
+          return false;
+        }
+
+        synchronized (csv) {
+          if (answer.startsWith(BattleWorker.RESULT_PREFIX)) {
+            csv.println(answer.substring(BattleWorker.RESULT_PREFIX.length()));
+            csv.flush();
+          }
+          else {
+            System.err.println(answer);
+          }
+          System.out.format("%d battles remaining, finished %s%n", jobs.size(),
+              job.replace(';', ' '));
+        }
+      }
+      return true;
+    }
+    catch (IOException e) {
+      System.err.println("Lost contact with worker: " + e.getMessage());
+      if (job != null) {
+        jobs.add(job);
+      }
+      return false;
+    }
+    finally {
+      try {
+        process.waitFor();
+      }
+      catch (InterruptedException e) {
+        process.destroy();
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Starts a worker process on the same classpath as this process.
+   * 
+   * @return The worker process, with its errors forwarded to this process.
+   * @throws IOException If the process cannot be started.
+   */
+  private Process startWorker() throws IOException {
+    String java = new File(new File(System.getProperty("java.home"), "bin"), "java").getPath();
+    ProcessBuilder builder = new ProcessBuilder(java, "-Xmx512m",
+        "-Drobocode.home=" + this.robocodeHome.getAbsolutePath(),
+        "-cp", System.getProperty("java.class.path"), BattleWorker.class.getName(),
+        this.robocodeHome.getAbsolutePath(), this.robot, Integer.toString(this.rounds));
+    builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+    return builder.start();
+  }
+
+  /**
+   * Adds opponents from a comma separated list, or from a file with one opponent per line when
+   * the value starts with @.
+   * 
+   * @param value The list of opponents or the @ prefixed file name.
+   * @throws IOException If the opponent file cannot be read.
+   */
+  private void parseOpponents(String value) throws IOException {
+    List<String> names = new ArrayList<>();
+    if (value.startsWith("@")) {
+      names.addAll(Files.readAllLines(new File(value.substring(1)).toPath(),
+          Charset.forName("UTF-8")));
+    }
+    else {
+      for (String name : value.split(",")) {
+        names.add(name);
+      }
+    }
+    for (String name : names) {
+      if (!name.trim().isEmpty() && !name.trim().startsWith("#")) {
+        this.opponents.add(name.trim());
+      }
+    }
+  }
+
+  /**
+   * Adds battlefield sizes from a comma separated list of WIDTHxHEIGHT values.
+   * 
+   * @param value The list of battlefield sizes.
+   */
+  private void parseFields(String value) {
+    for (String field : value.split(",")) {
+      String[] size = field.trim().toLowerCase().split("x");
+      this.fields.add(new int[] { Integer.parseInt(size[0]), Integer.parseInt(size[1]) });
+    }
+  }
+
+  /**
+   * Runs a batch of battles described by the command line, exiting with status 1 if a worker died.
+   * 
+   * @param args The command line arguments.
+   * @throws Exception If the battles cannot be run.
+   */
+  public static void main(String[] args) throws Exception {
+    if (!new BatchBattleRunner(args).run()) {
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * This file is part of WrathOfPele.
+ *
+ * WrathOfPele is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * WrathOfPele is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with WrathOfPele.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ajc.control;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.Locale;
+import robocode.BattleResults;
+import robocode.control.BattleSpecification;
+import robocode.control.BattlefieldSpecification;
+import robocode.control.RobocodeEngine;
+import robocode.control.RobotSpecification;
+import robocode.control.events.BattleAdaptor;
+import robocode.control.events.BattleCompletedEvent;
+import robocode.control.events.BattleErrorEvent;
+
+/**
+ * Runs battles on behalf of a BatchBattleRunner inside a separate worker process.
+ * 
+ * The worker reads one battle per line from standard input in the form
+ * <i>opponent;width;height</i>, runs it on its own RobocodeEngine, and answers with a single line
+ * on standard output. Successful battles are answered with <i>RESULT,</i> followed by a CSV row
+ * and failed battles with <i>ERROR,</i> followed by a message. The worker exits once its input is
+ * closed.
+ * 
+ * @author Anthony Christe
+ *
+ */
+public class BattleWorker extends BattleAdaptor {
+  /**
+   * Prefix of lines carrying a CSV row of battle results.
+   */
+  public static final String RESULT_PREFIX = "RESULT,";
+
+  /**
+   * Prefix of lines reporting that a battle could not be run.
+   */
+  public static final String ERROR_PREFIX = "ERROR,";
+
+  /**
+   * The engine all of this worker's battles are run on.
+   */
+  private final RobocodeEngine engine;
+
+  /**
+   * Name of the robot being evaluated, e.g. ajc.WrathOfPele*.
+   */
+  private final String robot;
+
+  /**
+   * The number of rounds in every battle.
+   */
+  private final int rounds;
+
+  /**
+   * Results of the most recently completed battle, indexed in the order the robots were listed.
+   */
+  private BattleResults[] results;
+
+  /**
+   * Creates a worker that runs battles for a robot.
+   * 
+   * @param robocodeHome The Robocode installation directory.
+   * @param robot The name of the robot being evaluated.
+   * @param rounds The number of rounds in every battle.
+   */
+  public BattleWorker(File robocodeHome, String robot, int rounds) {
+    this.engine = new RobocodeEngine(robocodeHome);
+    this.engine.addBattleListener(this);
+    this.engine.setVisible(false);
+    this.robot = robot;
+    this.rounds = rounds;
+  }
+
+  /**
+   * Answers battle requests from <i>in</i> on <i>out</i> until <i>in</i> is closed.
+   * 
+   * @param in The stream battle requests are read from.
+   * @param out The stream results are written to.
+   * @throws IOException If reading a battle request fails.
+   */
+  public void serve(BufferedReader in, PrintStream out) throws IOException {
+    String line;
+    while ((line = in.readLine()) != null) {
+      if (line.trim().isEmpty()) {
+        continue;
+      }
+      String[] job = line.split(";");
+      try {
+        String row = this.runBattle(job[0], Integer.parseInt(job[1]), Integer.parseInt(job[2]));
+        out.println(RESULT_PREFIX + row);
+      }
+      catch (RuntimeException e) {
+        out.println(ERROR_PREFIX + line + "," + e.getMessage());
+      }
+      out.flush();
+    }
+    this.engine.close();
+  }
+
+  /**
+   * Runs a single battle and formats its results as a CSV row.
+   * 
+   * @param opponent The name of the opposing robot.
+   * @param width The width of the battlefield.
+   * @param height The height of the battlefield.
+   * @return The CSV row described by <i>BatchBattleRunner.CSV_HEADER</i>.
+   */
+  public String runBattle(String opponent, int width, int height) {
+    RobotSpecification[] robots = this.engine.getLocalRepository(this.robot + "," + opponent);
+    if (robots == null || robots.length < 2) {
+      throw new IllegalArgumentException("Could not find both " + this.robot + " and " + opponent);
+    }
+
+    this.results = null;
+    this.engine.runBattle(new BattleSpecification(this.rounds,
+        new BattlefieldSpecification(width, height), robots), true);
+    if (this.results == null) {
+      throw new IllegalStateException("Battle against " + opponent + " did not complete");
+    }
+
+    // The robot under test was listed first, and indexed results follow the listed order
+    BattleResults ours = this.findResults(0);
+    BattleResults theirs = this.findResults(1);
+    return String.format(Locale.US, "%s,%d,%d,%d,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f", opponent,
+        width, height, this.rounds, ours.getFirsts(), theirs.getFirsts(), ours.getScore(),
+        theirs.getScore(), ours.getSurvival(), theirs.getSurvival(), ours.getBulletDamage(),
+        theirs.getBulletDamage());
+  }
+
+  /**
+   * Stores the results of the battle that just completed.
+   * 
+   * @param event Details about the completed battle.
+   */
+  @Override
+  public void onBattleCompleted(BattleCompletedEvent event) {
+    this.results = event.getIndexedResults();
+  }
+
+  /**
+   * Reports engine errors on standard error, keeping standard output for results.
+   * 
+   * @param event The error reported by the engine.
+   */
+  @Override
+  public void onBattleError(BattleErrorEvent event) {
+    System.err.println(event.getError());
+  }
+
+  /**
+   * Finds the results of a robot by its position in the battle.
+   * 
+   * Results are matched by position rather than by name, so a robot fighting a copy or a variant
+   * of itself still gets its own results.
+   * 
+   * @param index The index of the robot in the specifications the battle was run with, 0 for the
+   * evaluated robot and 1 for its opponent.
+   * @return The results of the robot.
+   */
+  private BattleResults findResults(int index) {
+    if (index >= this.results.length || this.results[index] == null) {
+      throw new IllegalStateException("Results for robot " + index + " are missing");
+    }
+    return this.results[index];
+  }
+
+  /**
+   * Entry point of a worker process.
+   * 
+   * @param args The Robocode installation directory, the evaluated robot and the number of rounds.
+   * @throws IOException If reading battle requests fails.
+   */
+  public static void main(String[] args) throws IOException {
+    // Anything the engine prints must not be mistaken for a result.
+    PrintStream results = System.out;
+    System.setOut(System.err);
+
+    BattleWorker worker = new BattleWorker(new File(args[0]), args[1], Integer.parseInt(args[2]));
+    worker.serve(new BufferedReader(new InputStreamReader(System.in, "UTF-8")), results);
+    System.exit(0);
+  }
+}